@@ -0,0 +1,80 @@
+package org.example.PasswordGeneratorKP;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Бенчмарки поиска и добавления паролей во временном файле базы данных SQLite.
+ */
+@State(Scope.Benchmark)
+public class DatabaseBenchmark {
+
+    // Количество строк, добавляемых в таблицу перед измерениями
+    private static final int PREFILLED_ROWS = 10000;
+
+    private Path directory;
+    private DatabaseManager manager;
+    private long nextLogin;
+
+    /**
+     * Создаёт временную базу данных и заполняет таблицу пользователей.
+     *
+     * @throws IOException если не удалось создать временный каталог.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("pgkp-jmh");
+        manager = new DatabaseManager("jdbc:sqlite:" + directory.resolve("bench.db"),
+                DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL);
+        for (int i = 0; i < PREFILLED_ROWS; i++) {
+            manager.addPasswordToDatabase("user" + i, "password" + i);
+        }
+    }
+
+    /**
+     * Закрывает базу данных и удаляет временные файлы.
+     *
+     * @throws IOException если не удалось удалить файлы.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Поиск существующего логина.
+     *
+     * @return найденный пароль.
+     */
+    @Benchmark
+    public String lookupHit() {
+        return manager.getPasswordByLogin("user" + (nextLogin++ % PREFILLED_ROWS));
+    }
+
+    /**
+     * Поиск отсутствующего логина.
+     *
+     * @return {@code null}.
+     */
+    @Benchmark
+    public String lookupMiss() {
+        return manager.getPasswordByLogin("missing" + (nextLogin++ % PREFILLED_ROWS));
+    }
+
+    /**
+     * Добавление нового логина.
+     */
+    @Benchmark
+    public void insert() {
+        manager.addPasswordToDatabase("new" + nextLogin++, "password");
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.PasswordGeneratorKP;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Бенчмарки генерации паролей разной длины и с разными наборами символов.
+ */
+@State(Scope.Thread)
+public class GenerationBenchmark {
+
+    @Param({"8", "64", "1024", "1000000", "10000000"})
+    public int length;
+
+    @Param({"false", "true"})
+    public boolean useUppercase;
+
+    @Param({"false", "true"})
+    public boolean useDigits;
+
+    @Param({"false", "true"})
+    public boolean useSpecialChars;
+
+    private PasswordGenerator generator;
+    private char[] buffer;
+
+    /**
+     * Создаёт генератор и буфер для пароля.
+     */
+    @Setup
+    public void setup() {
+        generator = new PasswordGenerator();
+        buffer = new char[length];
+    }
+
+    /**
+     * Полный путь генерации с созданием {@link PasswordResult}.
+     *
+     * @return результат генерации.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     */
+    @Benchmark
+    public PasswordResult generatePassword() throws PasswordGeneratorException {
+        return generator.generatePassword(length, useUppercase, useDigits, useSpecialChars);
+    }
+
+    /**
+     * Генерация в переиспользуемый буфер без выделения памяти.
+     *
+     * @return буфер с паролем.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     */
+    @Benchmark
+    public char[] fillPassword() throws PasswordGeneratorException {
+        generator.fillPassword(buffer, length, useUppercase, useDigits, useSpecialChars);
+        return buffer;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.PasswordGeneratorKP;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Бенчмарк перемешивания символов пароля на месте.
+ */
+@State(Scope.Thread)
+public class ShuffleBenchmark {
+
+    @Param({"8", "64", "1024", "1000000", "10000000"})
+    public int length;
+
+    private final SecureRandom random = new SecureRandom();
+    private char[] chars;
+
+    /**
+     * Заполняет массив символов для перемешивания.
+     */
+    @Setup
+    public void setup() {
+        chars = new char[length];
+        Arrays.fill(chars, 'a');
+    }
+
+    /**
+     * Перемешивание алгоритмом Фишера — Йетса.
+     *
+     * @return перемешанный массив.
+     */
+    @Benchmark
+    public char[] shuffle() {
+        PasswordGenerator.shuffle(chars, length, random);
+        return chars;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.PasswordGeneratorKP;
+
+import java.util.List;
+
+/**
+ * Класс для хранения результата пакетной генерации паролей.
+ * Наследуется от {@link Result}: время выполнения — общее время генерации всего пакета,
+ * а время генерации каждого пароля хранится в соответствующем {@link PasswordResult}.
+ */
+public class BatchResult extends Result {
+
+    /**
+     * Сгенерированные пароли в порядке генерации.
+     */
+    private final List<PasswordResult> passwords;
+
+    /**
+     * Конструктор для создания объекта результата пакетной генерации.
+     *
+     * @param passwords      сгенерированные пароли.
+     * @param generationTime общее время генерации пакета в наносекундах.
+     */
+    public BatchResult(List<PasswordResult> passwords, long generationTime) {
+        super(generationTime);
+        this.passwords = passwords;
+    }
+
+    /**
+     * Возвращает сгенерированные пароли.
+     *
+     * @return неизменяемый список результатов генерации.
+     */
+    public List<PasswordResult> getPasswords() {
+        return passwords;
+    }
+
+    /**
+     * Возвращает среднее время генерации одного пароля.
+     *
+     * @return среднее время генерации одного пароля в наносекундах.
+     */
+    public long getAverageGenerationTime() {
+        if (passwords.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (PasswordResult password : passwords) {
+            total += password.getGenerationTime();
+        }
+        return total / passwords.size();
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.PasswordGeneratorKP;
+
+/**
+ * Класс для хранения результата пакетной записи учётных данных в базу данных.
+ * Наследуется от {@link Result} для хранения времени выполнения операции.
+ */
+public class BulkInsertResult extends Result {
+
+    private final long inserted;
+    private final long skipped;
+    private final long upserted;
+    private final long failed;
+    private final boolean aborted;
+
+    /**
+     * Конструктор для создания объекта результата пакетной записи.
+     *
+     * @param inserted       количество добавленных строк.
+     * @param skipped        количество пропущенных строк с уже существующим логином.
+     * @param upserted       количество строк, заменивших пароль существующего логина в режиме {@code UPSERT}.
+     * @param failed         количество строк, которые не удалось записать, включая отменённые вместе с порцией.
+     * @param aborted        была ли запись прервана из-за ошибки.
+     * @param generationTime время выполнения операции в наносекундах.
+     */
+    public BulkInsertResult(long inserted, long skipped, long upserted, long failed, boolean aborted, long generationTime) {
+        super(generationTime);
+        this.inserted = inserted;
+        this.skipped = skipped;
+        this.upserted = upserted;
+        this.failed = failed;
+        this.aborted = aborted;
+    }
+
+    /**
+     * Возвращает количество добавленных строк.
+     *
+     * @return количество добавленных строк.
+     */
+    public long getInserted() {
+        return inserted;
+    }
+
+    /**
+     * Возвращает количество пропущенных строк с уже существующим логином.
+     *
+     * @return количество пропущенных строк.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Возвращает количество строк, заменивших пароль существующего логина в режиме {@code UPSERT}.
+     * Новые логины в этом режиме учитываются в {@link #getInserted()}.
+     *
+     * @return количество заменённых строк.
+     */
+    public long getUpserted() {
+        return upserted;
+    }
+
+    /**
+     * Возвращает количество строк, которые не удалось записать.
+     *
+     * @return количество незаписанных строк.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Показывает, была ли запись прервана из-за ошибки.
+     *
+     * @return {@code true}, если запись прервана.
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Возвращает общее количество обработанных строк.
+     *
+     * @return общее количество обработанных строк.
+     */
+    public long getTotal() {
+        return inserted + skipped + upserted + failed;
+    }
+
+    /**
+     * Возвращает скорость обработки строк.
+     *
+     * @return количество обработанных строк в секунду.
+     */
+    public double getRowsPerSecond() {
+        return getGenerationTime() == 0 ? 0 : getTotal() * 1e9 / getGenerationTime();
+    }
+}
@@ -0,0 +1,756 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Консольный режим приложения без графического интерфейса: пакетная генерация паролей,
+ * HTTP-сервис генерации и нагрузочный тест для него, выгрузка, загрузка и перенос учётных данных в шарды,
+ * проверка надёжности сохранённых паролей.
+ * Не использует классы JavaFX, поэтому запускается быстро и работает на серверах без дисплея.
+ */
+public class CLI {
+
+    private static final Logger logger = LogManager.getLogger(CLI.class);
+
+    /**
+     * Команда генерации паролей.
+     */
+    public static final String COMMAND_GENERATE = "generate";
+
+    /**
+     * Команда запуска HTTP-сервиса.
+     */
+    public static final String COMMAND_SERVE = "serve";
+
+    /**
+     * Команда нагрузочного теста HTTP-сервиса.
+     */
+    public static final String COMMAND_LOAD_TEST = "loadtest";
+
+    /**
+     * Команда выгрузки учётных данных из базы данных в файл.
+     */
+    public static final String COMMAND_EXPORT = "export";
+
+    /**
+     * Команда загрузки учётных данных из файла в базу данных.
+     */
+    public static final String COMMAND_IMPORT = "import";
+
+    /**
+     * Команда переноса учётных данных из одной базы данных в шарды.
+     */
+    public static final String COMMAND_RESHARD = "reshard";
+
+    /**
+     * Команда проверки надёжности сохранённых паролей.
+     */
+    public static final String COMMAND_AUDIT = "audit";
+
+    // Количество паролей, генерируемых и записываемых за один раз
+    private static final int BLOCK_SIZE = 10000;
+
+    // Количество логинов, перечисляемых в сообщении об ошибке
+    private static final int MAX_LISTED_LOGINS = 20;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Использование: generate [параметры]",
+            "  --count N           количество паролей (по умолчанию 1)",
+            "  --length N          длина пароля (по умолчанию 12)",
+            "  --uppercase         включить заглавные буквы",
+            "  --digits            включить цифры",
+            "  --special           включить специальные символы",
+            "  --ascii             не использовать кириллицу",
+            "  --exclude-ambiguous исключить символы, которые легко спутать (0/O, 1/l, кириллические двойники)",
+            "  --format lines|csv  формат вывода: по паролю в строке или CSV с логинами (по умолчанию lines)",
+            "  --output FILE       записать результат в файл вместо стандартного вывода",
+            "  --login-prefix P    префикс логинов для CSV и базы данных (по умолчанию user)",
+            "  --store             сохранить пароли в базу данных; пароли для уже существующих логинов",
+            "                      не сохраняются и не выводятся, а команда завершается с кодом 1",
+            "  --db URL            URL базы данных SQLite (по умолчанию jdbc:sqlite:database.db)",
+            "  --hash              сохранять в базу данных хеши паролей PBKDF2 вместо открытого текста",
+            "  --hash-iterations N количество итераций PBKDF2 (по умолчанию " + PasswordHasher.DEFAULT_ITERATIONS + ")",
+            "  --hash-threads N    количество потоков хеширования (по умолчанию по числу процессоров)",
+            "  --parallel          генерировать пароли параллельно",
+            "  --unique            гарантировать, что пароли не повторяются (с --store — и с паролями в базе данных;",
+            "                      несовместимо с --hash, так как по хешам сохранённые пароли сравнить нельзя)",
+            "  --help              показать эту справку",
+            "",
+            "Использование: serve [--port N] [--workers N] [--queue N] [--pool N]",
+            "  HTTP-сервис: GET /generate?length=12&uppercase&digits&special, GET /generate/batch?count=100&length=12,",
+            "  GET /metrics — метрики в формате Prometheus; --pool N — выдавать пароли из пула до N готовых паролей",
+            "  на каждую длину и набор символов",
+            "",
+            "Использование: loadtest [--url URL] [--concurrency N] [--requests N]",
+            "",
+            "Использование: export --output FILE [--format binary|csv] [--db URL]",
+            "Использование: import --input FILE [--format binary|csv] [--db URL] [--on-duplicate skip|fail|upsert]",
+            "  выгрузка и загрузка таблицы учётных данных; формат по умолчанию определяется по расширению файла",
+            "",
+            "Использование: reshard --shards N [--db URL] [--target FILE]",
+            "  перенос учётных данных из одной базы данных (по умолчанию jdbc:sqlite:database.db)",
+            "  в N файлов шардов FILE-i-of-N.db (по умолчанию database-i-of-N.db)",
+            "",
+            "Использование: audit [--db URL | --input FILE [--format binary|csv]] [--threads N] [--show-weak N]",
+            "  проверка надёжности паролей из базы данных или файла выгрузки: распределение оценок и найденных шаблонов;",
+            "  --show-weak N — вывести до N логинов со слабыми паролями (сами пароли не выводятся)");
+
+    /**
+     * Формат вывода паролей.
+     */
+    enum Format { LINES, CSV }
+
+    /**
+     * Проверяет, является ли аргумент командой консольного режима.
+     *
+     * @param argument первый аргумент командной строки.
+     * @return {@code true}, если это команда консольного режима.
+     */
+    public static boolean isCommand(String argument) {
+        return COMMAND_GENERATE.equals(argument) || COMMAND_SERVE.equals(argument) || COMMAND_LOAD_TEST.equals(argument)
+                || COMMAND_EXPORT.equals(argument) || COMMAND_IMPORT.equals(argument) || COMMAND_RESHARD.equals(argument)
+                || COMMAND_AUDIT.equals(argument);
+    }
+
+    /**
+     * Выполняет команду консольного режима.
+     *
+     * @param args аргументы командной строки, первым из которых является команда.
+     * @return код завершения процесса: 0 — успех, 1 — ошибка выполнения, 2 — ошибка в аргументах.
+     */
+    public static int run(String[] args) {
+        switch (args[0]) {
+            case COMMAND_SERVE:
+                return serve(args);
+            case COMMAND_LOAD_TEST:
+                return loadTest(args);
+            case COMMAND_EXPORT:
+            case COMMAND_IMPORT:
+                return transfer(args);
+            case COMMAND_RESHARD:
+                return reshard(args);
+            case COMMAND_AUDIT:
+                return audit(args);
+            default:
+                return generate(args);
+        }
+    }
+
+    /**
+     * Выполняет команду генерации паролей.
+     *
+     * @param args аргументы командной строки.
+     * @return код завершения процесса.
+     */
+    private static int generate(String[] args) {
+        int count = 1;
+        int length = 12;
+        boolean useUppercase = false;
+        boolean useDigits = false;
+        boolean useSpecialChars = false;
+        boolean asciiOnly = false;
+        boolean excludeAmbiguous = false;
+        boolean store = false;
+        boolean parallel = false;
+        boolean unique = false;
+        boolean hash = false;
+        int hashIterations = PasswordHasher.DEFAULT_ITERATIONS;
+        int hashThreads = Runtime.getRuntime().availableProcessors();
+        Format format = Format.LINES;
+        Path output = null;
+        String loginPrefix = "user";
+        String dbUrl = null;
+
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--count":
+                        count = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--length":
+                        length = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--uppercase":
+                        useUppercase = true;
+                        break;
+                    case "--digits":
+                        useDigits = true;
+                        break;
+                    case "--special":
+                        useSpecialChars = true;
+                        break;
+                    case "--ascii":
+                        asciiOnly = true;
+                        break;
+                    case "--exclude-ambiguous":
+                        excludeAmbiguous = true;
+                        break;
+                    case "--format":
+                        format = Format.valueOf(value(args, ++i).toUpperCase());
+                        break;
+                    case "--output":
+                        output = Path.of(value(args, ++i));
+                        break;
+                    case "--login-prefix":
+                        loginPrefix = value(args, ++i);
+                        break;
+                    case "--store":
+                        store = true;
+                        break;
+                    case "--db":
+                        dbUrl = value(args, ++i);
+                        break;
+                    case "--parallel":
+                        parallel = true;
+                        break;
+                    case "--unique":
+                        unique = true;
+                        break;
+                    case "--hash":
+                        hash = true;
+                        break;
+                    case "--hash-iterations":
+                        hashIterations = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--hash-threads":
+                        hashThreads = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--help":
+                        System.out.println(USAGE);
+                        return 0;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            if (count < 0) {
+                throw new IllegalArgumentException("Количество паролей не может быть отрицательным.");
+            }
+            if (hash && !store) {
+                throw new IllegalArgumentException("Параметр --hash используется только вместе с --store.");
+            }
+            if (hash && unique) {
+                throw new IllegalArgumentException("Параметр --unique нельзя использовать вместе с --hash: "
+                        + "сохранённые хеши нельзя сравнить с новыми паролями.");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        PasswordPolicy policy;
+        try {
+            PasswordPolicy.Builder builder = PasswordPolicy.builder().cyrillic(!asciiOnly);
+            if (useUppercase) {
+                builder.uppercase(1);
+            }
+            if (useDigits) {
+                builder.digits(1);
+            }
+            if (useSpecialChars) {
+                builder.specialChars(1);
+            }
+            if (excludeAmbiguous) {
+                builder.excludeAmbiguous();
+            }
+            policy = builder.build();
+        } catch (PasswordGeneratorException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        DatabaseManager databaseManager = null;
+        PasswordHasher hasher = null;
+        if (store) {
+            databaseManager = dbUrl == null ? new DatabaseManager()
+                    : new DatabaseManager(dbUrl, DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL);
+            if (hash) {
+                try {
+                    hasher = new PasswordHasher(hashIterations, hashThreads);
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage());
+                    return 2;
+                }
+                databaseManager.setPasswordHasher(hasher);
+            }
+        }
+        try (Writer out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            UniquePasswordSet issued = null;
+            if (unique) {
+                issued = new UniquePasswordSet(policy, length, count);
+                if (databaseManager != null) {
+                    UniquePasswordSet seed = issued;
+                    long[] hashed = new long[1];
+                    databaseManager.forEachCredential(credential -> {
+                        if (PasswordHasher.isHash(credential.getPassword())) {
+                            hashed[0]++;
+                        } else {
+                            seed.add(credential.getPassword());
+                        }
+                    });
+                    if (hashed[0] > 0) {
+                        throw new IllegalArgumentException("База данных содержит хеши паролей (" + hashed[0]
+                                + "): уникальность новых паролей относительно них проверить нельзя.");
+                    }
+                }
+                PasswordGenerator.checkKeyspace(count, issued);
+            }
+            List<String> skipped = generate(out, count, length, policy, parallel, issued, format, loginPrefix, databaseManager);
+            if (!skipped.isEmpty()) {
+                System.err.println("Логины уже существуют в базе данных, пароли для них не сохранены и не выведены ("
+                        + skipped.size() + "): " + String.join(", ", skipped.subList(0, Math.min(skipped.size(), MAX_LISTED_LOGINS)))
+                        + (skipped.size() > MAX_LISTED_LOGINS ? ", ..." : ""));
+                return 1;
+            }
+            return 0;
+        } catch (SQLException e) {
+            logger.error("Ошибка чтения паролей из базы данных: {}", e.getMessage());
+            System.err.println(e.getMessage());
+            return 1;
+        } catch (PasswordGeneratorException | IOException | IllegalArgumentException e) {
+            logger.error("Ошибка консольной генерации паролей: {}", e.getMessage());
+            System.err.println(e.getMessage());
+            return 1;
+        } finally {
+            if (databaseManager != null) {
+                databaseManager.close();
+            }
+            if (hasher != null) {
+                hasher.close();
+            }
+        }
+    }
+
+    /**
+     * Выполняет команду запуска HTTP-сервиса и ожидает завершения процесса.
+     *
+     * @param args аргументы командной строки.
+     * @return код завершения процесса.
+     */
+    private static int serve(String[] args) {
+        int port = 8080;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int queue = 1024;
+        int poolSize = 0;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--workers":
+                        workers = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--queue":
+                        queue = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--pool":
+                        poolSize = Integer.parseInt(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            if (workers < 1 || queue < 1) {
+                throw new IllegalArgumentException("Количество потоков и размер очереди должны быть не менее 1.");
+            }
+            if (poolSize < 0 || poolSize == 1) {
+                throw new IllegalArgumentException("Размер пула паролей должен быть 0 (без пула) или не менее 2.");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        // Свойство читается сервером JDK один раз при создании первого сервера, поэтому задаётся до него;
+        // значение, указанное при запуске через -D, сохраняется
+        if (System.getProperty(HttpService.NODELAY_PROPERTY) == null) {
+            System.setProperty(HttpService.NODELAY_PROPERTY, "true");
+        }
+        PasswordPool pool = poolSize == 0 ? null : new PasswordPool(new PasswordGenerator(), poolSize / 4, poolSize, 1);
+        HttpService service = null;
+        try {
+            HttpService started = new HttpService(port, workers, queue, pool);
+            service = started;
+            Metrics.get().setPasswordPool(pool);
+            Metrics.get().registerMBean();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                started.stop(1);
+                if (pool != null) {
+                    pool.close();
+                }
+            }));
+            started.start();
+            Thread.currentThread().join();
+            return 0;
+        } catch (IOException e) {
+            logger.error("Не удалось запустить HTTP-сервис: {}", e.getMessage());
+            System.err.println(e.getMessage());
+            if (pool != null) {
+                pool.close();
+            }
+            return 1;
+        } catch (InterruptedException e) {
+            // Прерывание потока команды завершает сервис без остановки процесса
+            Thread.currentThread().interrupt();
+            service.stop(0);
+            if (pool != null) {
+                pool.close();
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Выполняет нагрузочный тест HTTP-сервиса.
+     *
+     * @param args аргументы командной строки.
+     * @return код завершения процесса.
+     */
+    private static int loadTest(String[] args) {
+        String url = "http://localhost:8080/generate?length=16&uppercase&digits&special";
+        int concurrency = 32;
+        int requests = 100000;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--url":
+                        url = value(args, ++i);
+                        break;
+                    case "--concurrency":
+                        concurrency = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--requests":
+                        requests = Integer.parseInt(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            if (concurrency < 1 || requests < 1) {
+                throw new IllegalArgumentException("Количество клиентов и запросов должно быть не менее 1.");
+            }
+            new HttpLoadTest(URI.create(url), concurrency, requests).run(System.out);
+            return 0;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    /**
+     * Выполняет команду выгрузки или загрузки учётных данных.
+     *
+     * @param args аргументы командной строки.
+     * @return код завершения процесса.
+     */
+    private static int transfer(String[] args) {
+        boolean export = COMMAND_EXPORT.equals(args[0]);
+        Path file = null;
+        CredentialFormat format = null;
+        String dbUrl = null;
+        DatabaseManager.DuplicatePolicy policy = DatabaseManager.DuplicatePolicy.SKIP;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--output":
+                    case "--input":
+                        if (args[i].equals("--output") != export) {
+                            throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                        }
+                        file = Path.of(value(args, ++i));
+                        break;
+                    case "--format":
+                        format = CredentialFormat.valueOf(value(args, ++i).toUpperCase());
+                        break;
+                    case "--db":
+                        dbUrl = value(args, ++i);
+                        break;
+                    case "--on-duplicate":
+                        if (export) {
+                            throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                        }
+                        policy = DatabaseManager.DuplicatePolicy.valueOf(value(args, ++i).toUpperCase());
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            if (file == null) {
+                throw new IllegalArgumentException("Не указан файл: " + (export ? "--output" : "--input"));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (format == null) {
+            format = CredentialFormat.forFile(file);
+        }
+
+        DatabaseManager databaseManager = dbUrl == null ? new DatabaseManager()
+                : new DatabaseManager(dbUrl, DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL);
+        try {
+            long startTime = System.nanoTime();
+            if (export) {
+                long count = databaseManager.exportCredentials(file, format);
+                double seconds = (System.nanoTime() - startTime) / 1e9;
+                System.out.printf("Выгружено строк: %d за %.3f с (%.0f строк/с), размер файла: %d байт%n",
+                        count, seconds, count / seconds, Files.size(file));
+                return 0;
+            }
+            BulkInsertResult result = databaseManager.importCredentials(file, format, policy);
+            System.out.printf("Загружено строк: %d (добавлено %d, пропущено %d, заменено %d, ошибок %d) за %.3f с (%.0f строк/с)%n",
+                    result.getTotal(), result.getInserted(), result.getSkipped(), result.getUpserted(), result.getFailed(),
+                    result.getGenerationTime() / 1e9, result.getRowsPerSecond());
+            return result.isAborted() ? 1 : 0;
+        } catch (SQLException | IOException e) {
+            logger.error("Ошибка {} учётных данных: {}", export ? "выгрузки" : "загрузки", e.getMessage());
+            System.err.println(e.getMessage());
+            return 1;
+        } finally {
+            databaseManager.close();
+        }
+    }
+
+    /**
+     * Выполняет команду переноса учётных данных в шарды.
+     *
+     * @param args аргументы командной строки.
+     * @return код завершения процесса.
+     */
+    private static int reshard(String[] args) {
+        int shardCount = 0;
+        String dbUrl = null;
+        Path target = Path.of("database.db");
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--shards":
+                        shardCount = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--db":
+                        dbUrl = value(args, ++i);
+                        break;
+                    case "--target":
+                        target = Path.of(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            if (shardCount < 1) {
+                throw new IllegalArgumentException("Количество шардов должно быть не менее 1: --shards N");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        DatabaseManager source = dbUrl == null ? new DatabaseManager()
+                : new DatabaseManager(dbUrl, DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL);
+        try (source; ShardedDatabaseManager sharded = new ShardedDatabaseManager(target, shardCount,
+                DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL)) {
+            BulkInsertResult result = sharded.copyFrom(source, DatabaseManager.DuplicatePolicy.SKIP);
+            System.out.printf("Перенесено строк: %d в %d шардов (добавлено %d, пропущено %d, ошибок %d) за %.3f с (%.0f строк/с)%n",
+                    result.getTotal(), shardCount, result.getInserted(), result.getSkipped(), result.getFailed(),
+                    result.getGenerationTime() / 1e9, result.getRowsPerSecond());
+            return result.isAborted() ? 1 : 0;
+        } catch (SQLException e) {
+            logger.error("Ошибка переноса учётных данных в шарды: {}", e.getMessage());
+            System.err.println(e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Выполняет команду проверки надёжности сохранённых паролей.
+     *
+     * @param args аргументы командной строки.
+     * @return код завершения процесса.
+     */
+    private static int audit(String[] args) {
+        String dbUrl = null;
+        Path file = null;
+        CredentialFormat format = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int showWeak = 0;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--db":
+                        dbUrl = value(args, ++i);
+                        break;
+                    case "--input":
+                        file = Path.of(value(args, ++i));
+                        break;
+                    case "--format":
+                        format = CredentialFormat.valueOf(value(args, ++i).toUpperCase());
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--show-weak":
+                        showWeak = Integer.parseInt(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            if (dbUrl != null && file != null) {
+                throw new IllegalArgumentException("Укажите либо --db, либо --input.");
+            }
+            if (threads < 1 || showWeak < 0) {
+                throw new IllegalArgumentException("Некорректное количество потоков или логинов.");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try (StrengthAudit audit = new StrengthAudit(StrengthEstimator.get(), threads, showWeak)) {
+            if (file != null) {
+                try (CredentialReader reader = CredentialReader.open(file, format == null ? CredentialFormat.forFile(file) : format)) {
+                    reader.forEachRemaining(audit);
+                }
+            } else {
+                try (DatabaseManager databaseManager = dbUrl == null ? new DatabaseManager()
+                        : new DatabaseManager(dbUrl, DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL)) {
+                    databaseManager.forEachCredential(audit);
+                }
+            }
+            audit.finish();
+
+            System.out.printf("Проверено паролей: %d, хешей (не проверяются): %d, средняя энтропия: %.1f бит, %.3f с (%.0f строк/с)%n",
+                    audit.getChecked(), audit.getHashed(), audit.getMeanEffectiveBits(), audit.getElapsedNanos() / 1e9,
+                    audit.getRowsPerSecond());
+            long checked = Math.max(1, audit.getChecked());
+            for (int score = 0; score <= 4; score++) {
+                long count = audit.getScoreCount(score);
+                System.out.printf("  %d %-15s %10d  %5.1f%%%n", score, PasswordStrength.label(score), count, count * 100.0 / checked);
+            }
+            for (PasswordStrength.Pattern pattern : PasswordStrength.Pattern.values()) {
+                System.out.printf("  шаблон %-10s %10d%n", pattern, audit.getPatternCount(pattern));
+            }
+            for (String login : audit.getWeakLogins()) {
+                System.out.println("  слабый пароль: " + login);
+            }
+            return 0;
+        } catch (SQLException | IOException | UncheckedIOException | IllegalStateException e) {
+            logger.error("Ошибка проверки надёжности паролей: {}", e.getMessage());
+            System.err.println(e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Генерирует пароли блоками, записывает их в поток и при необходимости сохраняет в базу данных.
+     * В памяти одновременно находится не более одного блока паролей.
+     * При сохранении блок сначала записывается в базу данных, а выводятся только добавленные строки:
+     * пароли для логинов, которые уже существуют в базе данных, не выводятся, а их логины возвращаются.
+     *
+     * @param out             поток вывода.
+     * @param count           количество паролей.
+     * @param length          длина пароля.
+     * @param policy          политика генерации.
+     * @param parallel        генерировать ли пароли параллельно.
+     * @param issued          множество выданных паролей, если пароли не должны повторяться, или {@code null}.
+     * @param format          формат вывода.
+     * @param loginPrefix     префикс логинов.
+     * @param databaseManager менеджер базы данных или {@code null}, если пароли не сохраняются.
+     * @return логины, которые уже существуют в базе данных и для которых пароли не сохранены и не выведены.
+     * @throws PasswordGeneratorException если параметры генерации некорректны.
+     * @throws IOException                если произошла ошибка записи или сохранения в базу данных.
+     */
+    static List<String> generate(Writer out, int count, int length, PasswordPolicy policy, boolean parallel,
+                         UniquePasswordSet issued, Format format, String loginPrefix, DatabaseManager databaseManager) throws PasswordGeneratorException, IOException {
+        PasswordGenerator generator = new PasswordGenerator();
+        List<String> skipped = new ArrayList<>();
+        if (format == Format.CSV) {
+            out.write("login,password\n");
+        }
+
+        for (int offset = 0; offset < count; offset += BLOCK_SIZE) {
+            int blockSize = Math.min(BLOCK_SIZE, count - offset);
+            BatchResult batch = issued == null ? generator.generatePasswords(blockSize, length, policy, parallel)
+                    : generator.generateUniquePasswords(blockSize, issued);
+            boolean[] stored = null;
+            if (databaseManager != null) {
+                List<Credential> credentials = new ArrayList<>(blockSize);
+                for (int i = 0; i < blockSize; i++) {
+                    credentials.add(new Credential(loginPrefix + (offset + i + 1), batch.getPasswords().get(i).getPassword()));
+                }
+                // Результаты приходят в порядке строк; получатель видит хеш, поэтому выводится исходный пароль блока
+                boolean[] inserted = new boolean[blockSize];
+                int[] row = new int[1];
+                BulkInsertResult result = databaseManager.addPasswordsToDatabase(credentials.iterator(),
+                        DatabaseManager.DuplicatePolicy.SKIP, blockSize, (credential, outcome) -> {
+                            inserted[row[0]++] = outcome == DatabaseManager.InsertOutcome.INSERTED;
+                            if (outcome == DatabaseManager.InsertOutcome.SKIPPED) {
+                                skipped.add(credential.getLogin());
+                            }
+                        });
+                if (result.isAborted()) {
+                    throw new IOException("Не удалось сохранить пароли в базу данных.");
+                }
+                stored = inserted;
+            }
+
+            for (int i = 0; i < blockSize; i++) {
+                if (stored != null && !stored[i]) {
+                    continue;
+                }
+                String password = batch.getPasswords().get(i).getPassword();
+                String login = loginPrefix + (offset + i + 1);
+                if (format == Format.CSV) {
+                    out.write(CredentialWriter.csv(login));
+                    out.write(',');
+                    out.write(CredentialWriter.csv(password));
+                } else {
+                    out.write(password);
+                }
+                out.write('\n');
+            }
+        }
+        out.flush();
+        return skipped;
+    }
+
+    /**
+     * Возвращает значение параметра командной строки.
+     *
+     * @param args  аргументы командной строки.
+     * @param index индекс значения.
+     * @return значение параметра.
+     * @throws IllegalArgumentException если значение отсутствует.
+     */
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Не указано значение параметра " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
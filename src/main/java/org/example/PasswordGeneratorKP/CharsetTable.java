@@ -0,0 +1,59 @@
+package org.example.PasswordGeneratorKP;
+
+/**
+ * Предвычисленная таблица символов для генерации паролей.
+ * Содержит общий набор символов и наборы, из каждого из которых в пароль
+ * обязательно попадает хотя бы один символ. Таблица неизменяема и может
+ * использоваться из нескольких потоков одновременно.
+ */
+final class CharsetTable {
+
+    /**
+     * Общий набор символов, из которого заполняются оставшиеся позиции пароля.
+     */
+    private final char[] charset;
+
+    /**
+     * Наборы символов, из каждого из которых берётся один обязательный символ.
+     */
+    private final char[][] required;
+
+    /**
+     * Конструктор таблицы символов.
+     *
+     * @param charset  общий набор символов.
+     * @param required обязательные наборы символов.
+     */
+    CharsetTable(char[] charset, char[][] required) {
+        this.charset = charset;
+        this.required = required;
+    }
+
+    /**
+     * Возвращает общий набор символов.
+     *
+     * @return общий набор символов.
+     */
+    char[] charset() {
+        return charset;
+    }
+
+    /**
+     * Возвращает обязательные наборы символов.
+     *
+     * @return обязательные наборы символов.
+     */
+    char[][] required() {
+        return required;
+    }
+
+    /**
+     * Возвращает минимальную длину пароля, при которой можно выполнить
+     * требование об обязательных символах.
+     *
+     * @return минимальная длина пароля.
+     */
+    int minLength() {
+        return Math.max(1, required.length);
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.PasswordGeneratorKP;
+
+/**
+ * Пара логин — пароль для пакетной записи в базу данных.
+ */
+public class Credential {
+
+    /**
+     * Логин пользователя.
+     */
+    private final String login;
+
+    /**
+     * Пароль пользователя.
+     */
+    private final String password;
+
+    /**
+     * Конструктор для создания пары логин — пароль.
+     *
+     * @param login    логин пользователя.
+     * @param password пароль пользователя.
+     */
+    public Credential(String login, String password) {
+        this.login = login;
+        this.password = password;
+    }
+
+    /**
+     * Возвращает логин пользователя.
+     *
+     * @return логин пользователя.
+     */
+    public String getLogin() {
+        return login;
+    }
+
+    /**
+     * Возвращает пароль пользователя.
+     *
+     * @return пароль пользователя.
+     */
+    public String getPassword() {
+        return password;
+    }
+}
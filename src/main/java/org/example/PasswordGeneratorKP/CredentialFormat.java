@@ -0,0 +1,30 @@
+package org.example.PasswordGeneratorKP;
+
+import java.nio.file.Path;
+
+/**
+ * Формат файла с учётными данными для экспорта и импорта.
+ */
+public enum CredentialFormat {
+
+    /**
+     * Двоичный формат: заголовок, затем для каждой строки логин и пароль в UTF-8,
+     * каждый с длиной в байтах, закодированной числом переменной длины.
+     */
+    BINARY,
+
+    /**
+     * CSV с заголовком {@code login,password}.
+     */
+    CSV;
+
+    /**
+     * Определяет формат по расширению файла: {@code .csv} — CSV, иначе двоичный.
+     *
+     * @param file путь к файлу.
+     * @return формат файла.
+     */
+    public static CredentialFormat forFile(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv") ? CSV : BINARY;
+    }
+}
@@ -0,0 +1,306 @@
+package org.example.PasswordGeneratorKP;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Потоковое чтение учётных данных из файла, записанного {@link CredentialWriter}.
+ * Двоичный файл читается через отображение в память окнами фиксированного размера,
+ * CSV — через буферизованный поток символов, поэтому объём памяти в куче не зависит от размера файла.
+ * <p>
+ * Ошибки чтения при обходе итератора передаются как {@link UncheckedIOException}.
+ */
+public class CredentialReader implements Iterator<Credential>, AutoCloseable {
+
+    // Размер окна отображения двоичного файла в память
+    private static final int WINDOW_SIZE = 64 << 20;
+
+    // Длина числа переменной длины, не более 5 байтов для int
+    private static final int MAX_VARINT_SIZE = 5;
+
+    private final FileChannel channel;
+    private final CredentialFormat format;
+    private final int windowSize;
+
+    // Состояние чтения двоичного файла
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private byte[] scratch = new byte[256];
+
+    // Состояние чтения CSV
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pushback = -2;
+    private long line = 1;
+
+    private Credential next;
+    private long count;
+
+    /**
+     * Конструктор чтения из открытого канала.
+     *
+     * @param channel    канал чтения.
+     * @param format     формат файла.
+     * @param windowSize размер окна отображения двоичного файла в память.
+     * @throws IOException если заголовок файла некорректен.
+     */
+    CredentialReader(FileChannel channel, CredentialFormat format, int windowSize) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        this.windowSize = windowSize;
+        this.fileSize = channel.size();
+        if (format == CredentialFormat.BINARY) {
+            this.reader = null;
+            map(0, 0);
+            ensure(5);
+            if (window.getInt() != CredentialWriter.MAGIC) {
+                throw new IOException("Файл не является файлом учётных данных.");
+            }
+            int version = window.get();
+            if (version != CredentialWriter.VERSION) {
+                throw new IOException("Неподдерживаемая версия файла учётных данных: " + version);
+            }
+        } else {
+            this.reader = Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), 1 << 16);
+        }
+    }
+
+    /**
+     * Открывает файл для чтения.
+     *
+     * @param file   путь к файлу.
+     * @param format формат файла.
+     * @return объект чтения.
+     * @throws IOException если файл не удалось открыть или его заголовок некорректен.
+     */
+    public static CredentialReader open(Path file, CredentialFormat format) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new CredentialReader(channel, format, WINDOW_SIZE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает количество прочитанных строк.
+     *
+     * @return количество строк.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = format == CredentialFormat.BINARY ? readBinary() : readCsv();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Credential next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Credential credential = next;
+        next = null;
+        count++;
+        return credential;
+    }
+
+    /**
+     * Закрывает файл.
+     *
+     * @throws IOException если файл не удалось закрыть.
+     */
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Читает следующую строку двоичного файла.
+     *
+     * @return учётные данные или {@code null} в конце файла.
+     * @throws IOException если файл обрезан или повреждён.
+     */
+    private Credential readBinary() throws IOException {
+        if (position() >= fileSize) {
+            return null;
+        }
+        String login = readField();
+        String password = readField();
+        return new Credential(login, password);
+    }
+
+    /**
+     * Читает строку двоичного формата: длину и байты UTF-8.
+     *
+     * @return строка.
+     * @throws IOException если файл обрезан или повреждён.
+     */
+    private String readField() throws IOException {
+        ensure((int) Math.min(MAX_VARINT_SIZE, Math.max(1, fileSize - position())));
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift >= 35 || !window.hasRemaining()) {
+                throw new IOException("Повреждена длина поля в позиции " + position());
+            }
+            byte b = window.get();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        if (length < 0) {
+            throw new IOException("Повреждена длина поля в позиции " + position());
+        }
+        ensure(length);
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        window.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Проверяет, что в окне осталось не менее указанного количества байтов, и при необходимости
+     * отображает новое окно, начиная с текущей позиции.
+     *
+     * @param size требуемое количество байтов.
+     * @throws IOException если до конца файла осталось меньше байтов.
+     */
+    private void ensure(int size) throws IOException {
+        if (window.remaining() >= size) {
+            return;
+        }
+        long position = position();
+        if (position + size > fileSize) {
+            throw new EOFException("Файл учётных данных обрезан в позиции " + position);
+        }
+        map(position, size);
+    }
+
+    /**
+     * Отображает в память окно файла.
+     *
+     * @param position начальная позиция окна.
+     * @param minSize  минимальный размер окна.
+     * @throws IOException если окно не удалось отобразить.
+     */
+    private void map(long position, int minSize) throws IOException {
+        long size = Math.min(fileSize - position, Math.max(windowSize, minSize));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+    }
+
+    /**
+     * Возвращает текущую позицию чтения в файле.
+     *
+     * @return позиция в байтах.
+     */
+    private long position() {
+        return windowStart + window.position();
+    }
+
+    /**
+     * Читает следующую строку CSV, пропуская заголовок.
+     *
+     * @return учётные данные или {@code null} в конце файла.
+     * @throws IOException если строка некорректна.
+     */
+    private Credential readCsv() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            pushback = c;
+            String login = readCsvField();
+            if (pushback != ',') {
+                throw new IOException("Строка " + line + ": ожидалось два поля через запятую.");
+            }
+            pushback = -2;
+            String password = readCsvField();
+            int end = read();
+            if (end == '\r') {
+                end = read();
+            }
+            if (end != '\n' && end != -1) {
+                throw new IOException("Строка " + line + ": ожидалось два поля через запятую.");
+            }
+            line++;
+            if (line == 2 && "login".equals(login) && "password".equals(password)) {
+                continue;
+            }
+            return new Credential(login, password);
+        }
+    }
+
+    /**
+     * Читает поле CSV до запятой, конца строки или файла. Символ-разделитель остаётся непрочитанным.
+     *
+     * @return значение поля.
+     * @throws IOException если кавычки не закрыты.
+     */
+    private String readCsvField() throws IOException {
+        field.setLength(0);
+        int c = read();
+        if (c == '"') {
+            while (true) {
+                c = read();
+                if (c == -1) {
+                    throw new EOFException("Строка " + line + ": не закрыты кавычки.");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        break;
+                    }
+                }
+                field.append((char) c);
+            }
+        } else {
+            while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                field.append((char) c);
+                c = read();
+            }
+        }
+        pushback = c;
+        return field.toString();
+    }
+
+    /**
+     * Читает символ CSV с учётом возвращённого символа.
+     *
+     * @return символ или -1 в конце файла.
+     * @throws IOException если произошла ошибка чтения.
+     */
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
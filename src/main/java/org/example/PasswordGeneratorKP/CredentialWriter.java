@@ -0,0 +1,207 @@
+package org.example.PasswordGeneratorKP;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Потоковая запись учётных данных в файл через {@link FileChannel} и буфер вне кучи.
+ * Объём используемой памяти не зависит от количества записанных строк.
+ * <p>
+ * Двоичный формат: магическое число и версия, затем для каждой строки длина логина в байтах,
+ * логин, длина пароля в байтах и пароль. Длины кодируются числами переменной длины (LEB128),
+ * строки — в UTF-8.
+ */
+public class CredentialWriter implements AutoCloseable {
+
+    /**
+     * Магическое число двоичного формата ("PGKC").
+     */
+    static final int MAGIC = 0x50474B43;
+
+    /**
+     * Версия двоичного формата.
+     */
+    static final int VERSION = 1;
+
+    // Размер буфера записи
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final CredentialFormat format;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder line = new StringBuilder();
+    private long count;
+    private long bytes;
+
+    /**
+     * Конструктор записи в открытый канал.
+     *
+     * @param channel канал записи.
+     * @param format  формат файла.
+     * @throws IOException если не удалось записать заголовок.
+     */
+    private CredentialWriter(FileChannel channel, CredentialFormat format) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        if (format == CredentialFormat.BINARY) {
+            buffer.putInt(MAGIC).put((byte) VERSION);
+        } else {
+            encode("login,password\n");
+        }
+    }
+
+    /**
+     * Открывает файл для записи. Существующий файл перезаписывается.
+     *
+     * @param file   путь к файлу.
+     * @param format формат файла.
+     * @return объект записи.
+     * @throws IOException если файл не удалось открыть.
+     */
+    public static CredentialWriter open(Path file, CredentialFormat format) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            return new CredentialWriter(channel, format);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Записывает учётные данные.
+     *
+     * @param credential учётные данные.
+     * @throws IOException если произошла ошибка записи.
+     */
+    public void write(Credential credential) throws IOException {
+        if (format == CredentialFormat.BINARY) {
+            writeField(credential.getLogin());
+            writeField(credential.getPassword());
+        } else {
+            line.setLength(0);
+            line.append(csv(credential.getLogin())).append(',').append(csv(credential.getPassword())).append('\n');
+            encode(line);
+        }
+        count++;
+    }
+
+    /**
+     * Возвращает количество записанных строк.
+     *
+     * @return количество строк.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Возвращает количество записанных байтов, включая находящиеся в буфере.
+     *
+     * @return количество байтов.
+     */
+    public long getBytes() {
+        return bytes + buffer.position();
+    }
+
+    /**
+     * Записывает содержимое буфера и закрывает файл.
+     *
+     * @throws IOException если произошла ошибка записи.
+     */
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            flush();
+        }
+    }
+
+    /**
+     * Экранирует значение для CSV: значения с запятыми, кавычками и переводами строк заключаются в кавычки.
+     *
+     * @param value значение.
+     * @return экранированное значение.
+     */
+    static String csv(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Записывает строку двоичного формата: длину в байтах и байты UTF-8.
+     *
+     * @param value строка.
+     * @throws IOException если произошла ошибка записи.
+     */
+    private void writeField(String value) throws IOException {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        int length = encoded.length;
+        if (buffer.remaining() < 5) {
+            flush();
+        }
+        while ((length & ~0x7F) != 0) {
+            buffer.put((byte) ((length & 0x7F) | 0x80));
+            length >>>= 7;
+        }
+        buffer.put((byte) length);
+
+        int offset = 0;
+        while (offset < encoded.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(buffer.remaining(), encoded.length - offset);
+            buffer.put(encoded, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    /**
+     * Кодирует текст в UTF-8 в буфер записи.
+     *
+     * @param text текст.
+     * @throws IOException если произошла ошибка записи.
+     */
+    private void encode(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (result.isOverflow()) {
+                flush();
+            } else {
+                result.throwException();
+            }
+        }
+        encoder.reset();
+    }
+
+    /**
+     * Записывает содержимое буфера в канал.
+     *
+     * @throws IOException если произошла ошибка записи.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
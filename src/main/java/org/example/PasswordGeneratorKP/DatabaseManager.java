@@ -3,88 +3,961 @@ package org.example.PasswordGeneratorKP;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.sql.*;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Класс для управления базой данных пользователей.
+ * Держит одно долгоживущее подключение к SQLite и переиспользует подготовленные запросы,
+ * поэтому стоимость операций сводится к стоимости самого запроса.
+ * Подключение открывается при первом обращении и закрывается методом {@link #close()}.
  */
-public class DatabaseManager {
+public class DatabaseManager implements AutoCloseable {
 
     private static final Logger logger = LogManager.getLogger(DatabaseManager.class);
 
     // URL для подключения к базе данных SQLite
     private static final String DB_URL = "jdbc:sqlite:database.db";
 
+    /**
+     * Режим журнала SQLite ({@code PRAGMA journal_mode}).
+     */
+    public enum JournalMode { DELETE, TRUNCATE, PERSIST, MEMORY, WAL, OFF }
+
+    /**
+     * Режим синхронизации SQLite ({@code PRAGMA synchronous}).
+     */
+    public enum SynchronousMode { OFF, NORMAL, FULL, EXTRA }
+
+    /**
+     * Способ обработки логинов, которые уже есть в базе данных, при пакетной записи.
+     */
+    public enum DuplicatePolicy {
+        /** Пропустить строку, сохранив существующий пароль. */
+        SKIP,
+        /** Прервать запись, откатив текущую порцию. */
+        FAIL,
+        /** Заменить существующий пароль новым. */
+        UPSERT
+    }
+
+    /**
+     * Результат записи одной строки при пакетной записи.
+     */
+    public enum InsertOutcome {
+        /** Строка добавлена. */
+        INSERTED,
+        /** Строка пропущена, так как логин уже существует. */
+        SKIPPED,
+        /** Строка заменила пароль существующего логина в режиме {@link DuplicatePolicy#UPSERT}. */
+        UPSERTED,
+        /** Строка не записана из-за ошибки в ней самой, например из-за существующего логина в режиме {@link DuplicatePolicy#FAIL}. */
+        FAILED,
+        /** Строка не записана, так как её порция отменена из-за ошибки в другой строке. */
+        ROLLED_BACK
+    }
+
+    // Размер порции пакетной записи по умолчанию
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    // Основной код ошибки SQLite при нарушении ограничения, например уникальности логина
+    private static final int SQLITE_CONSTRAINT = 19;
+
+    private final String dbUrl;
+    private final JournalMode journalMode;
+    private final SynchronousMode synchronousMode;
+
+    // Долгоживущее подключение и подготовленные запросы
+    private Connection connection;
+    private PreparedStatement selectStatement;
+    private PreparedStatement insertStatement;
+
+    // Необязательный кэш результатов поиска по логину
+    private volatile LoginCache loginCache;
+
+    // Необязательное хеширование сохраняемых паролей
+    private volatile PasswordHasher passwordHasher;
+
+    // Необязательный индекс существования логинов и его параметры
+    private volatile LoginBloomFilter loginIndex;
+    private Path loginIndexFile;
+    private long loginIndexExpectedInsertions;
+    private double loginIndexFalsePositiveRate;
+    // Значение PRAGMA data_version подключения при последнем досчёте индекса (-1 — неизвестно)
+    private long loginIndexDataVersion = -1;
+    // Минимальный интервал проверки изменений другими подключениями в наносекундах (-1 — не проверять)
+    private volatile long loginIndexRefreshIntervalNanos = -1;
+    // Время последней проверки изменений другими подключениями (System.nanoTime())
+    private volatile long loginIndexCheckedAt;
+
     /**
      * Конструктор класса DatabaseManager.
-     * Создает таблицу пользователей в базе данных, если она еще не существует.
+     * Использует файл database.db в режиме журнала WAL с синхронизацией NORMAL.
+     * К базе данных не обращается: подключение открывается при первом использовании.
      */
     public DatabaseManager() {
+        this(DB_URL, JournalMode.WAL, SynchronousMode.NORMAL);
+    }
+
+    /**
+     * Конструктор класса DatabaseManager с указанием базы данных и параметров SQLite.
+     * К базе данных не обращается: подключение открывается при первом использовании.
+     *
+     * @param dbUrl           URL подключения к базе данных SQLite.
+     * @param journalMode     режим журнала.
+     * @param synchronousMode режим синхронизации.
+     */
+    public DatabaseManager(String dbUrl, JournalMode journalMode, SynchronousMode synchronousMode) {
+        this.dbUrl = dbUrl;
+        this.journalMode = journalMode;
+        this.synchronousMode = synchronousMode;
         logger.info("DatabaseManager инициализирован");
-        createUsersTable();
+    }
+
+    /**
+     * Открывает подключение к базе данных, применяет параметры SQLite
+     * и создает таблицу пользователей, если она еще не существует.
+     * Повторный вызов при уже открытом подключении ничего не делает.
+     *
+     * @throws SQLException если подключение не удалось открыть.
+     */
+    public synchronized void open() throws SQLException {
+        if (connection != null) {
+            return;
+        }
+        Connection conn = DriverManager.getConnection(dbUrl);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode=" + journalMode.name() + ";");
+            stmt.execute("PRAGMA synchronous=" + synchronousMode.name() + ";");
+            createUsersTable(stmt);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        connection = conn;
+        logger.info("Открыто подключение к базе данных: {}, журнал: {}, синхронизация: {}",
+                dbUrl, journalMode, synchronousMode);
+    }
+
+    /**
+     * Проверяет, открыто ли подключение к базе данных.
+     *
+     * @return {@code true}, если подключение открыто.
+     */
+    public synchronized boolean isOpen() {
+        return connection != null;
+    }
+
+    /**
+     * Закрывает подготовленные запросы и подключение к базе данных.
+     * Если индекс логинов связан с файлом, перед закрытием он сохраняется.
+     * После закрытия следующее обращение к базе данных откроет подключение заново.
+     */
+    @Override
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        saveLoginIndex();
+        try {
+            closeStatements();
+            connection.close();
+            logger.info("Подключение к базе данных закрыто.");
+        } catch (SQLException e) {
+            logger.error("Ошибка закрытия подключения к базе данных: {}", e.getMessage());
+        } finally {
+            connection = null;
+            loginIndexDataVersion = -1;
+        }
+    }
+
+    /**
+     * Подключает кэш результатов поиска пароля по логину.
+     *
+     * @param loginCache кэш или {@code null}, чтобы отключить кэширование.
+     */
+    public void setLoginCache(LoginCache loginCache) {
+        this.loginCache = loginCache;
+        Metrics.get().setLoginCache(loginCache);
+    }
+
+    /**
+     * Возвращает подключённый кэш результатов поиска пароля по логину.
+     *
+     * @return кэш или {@code null}, если кэширование отключено.
+     */
+    public LoginCache getLoginCache() {
+        return loginCache;
+    }
+
+    /**
+     * Включает хеширование сохраняемых паролей. Пароли, сохранённые ранее открытым текстом,
+     * остаются в базе данных и заменяются хешем при первой успешной проверке {@link #verifyPassword(String, String)}.
+     *
+     * @param passwordHasher хеширование паролей или {@code null}, чтобы сохранять пароли открытым текстом.
+     */
+    public void setPasswordHasher(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
+    /**
+     * Возвращает подключённое хеширование паролей.
+     *
+     * @return хеширование паролей или {@code null}, если пароли сохраняются открытым текстом.
+     */
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
+
+    /**
+     * Включает индекс существования логинов.
+     * Индекс загружается из файла, если он существует и построен с теми же параметрами, и дополняется строками,
+     * добавленными после его сохранения; иначе строится заново по всей таблице пользователей.
+     *
+     * @param expectedInsertions ожидаемое количество логинов.
+     * @param falsePositiveRate  допустимая вероятность ложноположительного ответа.
+     * @param indexFile          файл для хранения индекса или {@code null}, если индекс не сохраняется.
+     */
+    public synchronized void enableLoginIndex(long expectedInsertions, double falsePositiveRate, Path indexFile) {
+        loginIndexExpectedInsertions = expectedInsertions;
+        loginIndexFalsePositiveRate = falsePositiveRate;
+        loginIndexFile = indexFile;
+
+        LoginBloomFilter index = null;
+        if (indexFile != null && Files.exists(indexFile)) {
+            try {
+                index = LoginBloomFilter.load(indexFile);
+                logger.info("Индекс логинов загружен из файла: {}", indexFile);
+                if (!index.hasParameters(expectedInsertions, falsePositiveRate)) {
+                    logger.info("Параметры сохранённого индекса логинов отличаются, он будет построен заново");
+                    index = null;
+                }
+            } catch (IOException e) {
+                logger.warn("Не удалось загрузить индекс логинов, он будет построен заново: {}", e.getMessage());
+            }
+        }
+        try {
+            loginIndex = catchUpLoginIndex(index);
+        } catch (SQLException e) {
+            logger.error("Ошибка построения индекса логинов: {}", e.getMessage());
+            loginIndex = null;
+        }
+    }
+
+    /**
+     * Задаёт, как часто индекс существования логинов проверяет изменения базы данных другими подключениями.
+     * По умолчанию база данных считается изменяемой только этим менеджером, и отрицательный ответ индекса
+     * принимается без обращения к базе данных. Если в базу данных пишут и другие процессы, перед отрицательным
+     * ответом выполняется {@code PRAGMA data_version}, но не чаще одного раза за указанный интервал.
+     *
+     * @param intervalMillis минимальный интервал между проверками в миллисекундах: {@code 0} — при каждом
+     *                       отрицательном ответе, отрицательное значение — не проверять (по умолчанию).
+     */
+    public void setLoginIndexRefreshInterval(long intervalMillis) {
+        loginIndexRefreshIntervalNanos = intervalMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    /**
+     * Сохраняет индекс существования логинов в файл, предварительно дополнив его новыми строками.
+     * Ничего не делает, если индекс не включён или не связан с файлом.
+     */
+    public synchronized void saveLoginIndex() {
+        if (loginIndex == null || loginIndexFile == null) {
+            return;
+        }
+        try {
+            loginIndex = catchUpLoginIndex(loginIndex);
+            loginIndex.save(loginIndexFile);
+            logger.info("Индекс логинов сохранён в файл: {}", loginIndexFile);
+        } catch (SQLException | IOException e) {
+            logger.error("Ошибка сохранения индекса логинов: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Дополняет индекс логинами из строк таблицы, добавленных после последней учтённой строки.
+     * Если индекса нет или он не соответствует таблице (логины удалялись или переименовывались, и rowid
+     * удалённых строк могли быть заняты заново, либо количество строк не сходится после досчёта, например
+     * для индекса от другой базы данных), строит новый индекс по всей таблице.
+     *
+     * @param index существующий индекс или {@code null}.
+     * @return актуальный индекс.
+     * @throws SQLException если произошла ошибка чтения таблицы.
+     */
+    private LoginBloomFilter catchUpLoginIndex(LoginBloomFilter index) throws SQLException {
+        Connection conn = connection();
+        long dataVersion = dataVersion();
+        long maxRowId;
+        long rowCount;
+        long removed;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(rowid), COUNT(*), (SELECT removed FROM users_changes) FROM users;")) {
+            rs.next();
+            maxRowId = rs.getLong(1);
+            rowCount = rs.getLong(2);
+            removed = rs.getLong(3);
+        }
+        boolean rebuild = index == null || index.getRemovedCount() != removed || index.getLastRowId() > maxRowId
+                || index.getRowCount() > rowCount;
+        if (rebuild) {
+            index = new LoginBloomFilter(loginIndexExpectedInsertions, loginIndexFalsePositiveRate);
+        }
+
+        long added = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT rowid, login FROM users WHERE rowid > ? ORDER BY rowid;")) {
+            pstmt.setLong(1, index.getLastRowId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    index.add(rs.getString(2));
+                    index.setLastRowId(rs.getLong(1));
+                    added++;
+                }
+            }
+        }
+        if (!rebuild && index.getRowCount() + added != rowCount) {
+            logger.info("Количество строк не совпадает с индексом логинов, он будет построен заново");
+            return catchUpLoginIndex(null);
+        }
+        index.setRowCount(index.getRowCount() + added);
+        index.setRemovedCount(removed);
+        loginIndexDataVersion = dataVersion;
+        loginIndexCheckedAt = System.nanoTime();
+        logger.info("В индекс логинов добавлено {} строк", added);
+        return index;
+    }
+
+    /**
+     * Возвращает номер версии данных подключения, который меняется, когда другое подключение
+     * (например, другой процесс) фиксирует изменения в базе данных.
+     *
+     * @return значение {@code PRAGMA data_version}.
+     * @throws SQLException если произошла ошибка чтения.
+     */
+    private long dataVersion() throws SQLException {
+        try (Statement stmt = connection().createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA data_version;")) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    /**
+     * Проверяет, пора ли проверить изменения базы данных другими подключениями.
+     *
+     * @return {@code true}, если проверка включена и с предыдущей прошло не меньше заданного интервала.
+     */
+    private boolean loginIndexRefreshDue() {
+        long interval = loginIndexRefreshIntervalNanos;
+        return interval >= 0 && System.nanoTime() - loginIndexCheckedAt >= interval;
+    }
+
+    /**
+     * Досчитывает индекс существования логинов, если после последнего досчёта другое подключение
+     * изменило базу данных. Если за время ожидания блокировки проверку уже выполнил другой поток,
+     * возвращает текущий индекс без обращения к базе данных.
+     *
+     * @return актуальный индекс или {@code null}, если индекс не включён или его не удалось досчитать.
+     */
+    private synchronized LoginBloomFilter refreshLoginIndex() {
+        LoginBloomFilter index = loginIndex;
+        if (index == null || !loginIndexRefreshDue()) {
+            return index;
+        }
+        loginIndexCheckedAt = System.nanoTime();
+        try {
+            if (dataVersion() != loginIndexDataVersion) {
+                logger.info("База данных изменена другим подключением, индекс логинов досчитывается");
+                index = catchUpLoginIndex(index);
+                loginIndex = index;
+            }
+            return index;
+        } catch (SQLException e) {
+            logger.error("Ошибка досчёта индекса логинов: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Проверяет, существует ли логин в базе данных.
+     * Если включён индекс существования логинов и он даёт отрицательный ответ, база данных не запрашивается.
+     * Если задан интервал {@link #setLoginIndexRefreshInterval(long)}, по его истечении сначала проверяется,
+     * не изменило ли базу данных другое подключение ({@code PRAGMA data_version}), и в этом случае индекс
+     * досчитывается.
+     * <p>
+     * Ответ служит быстрой предварительной проверкой: при одновременной записи из нескольких процессов логин может
+     * быть занят сразу после проверки, поэтому окончательной проверкой занятости логина служит результат
+     * {@link #addPasswordToDatabase(String, String)}.
+     *
+     * @param login логин пользователя.
+     * @return {@code true}, если логин уже есть в базе данных.
+     */
+    public boolean loginExists(String login) {
+        LoginBloomFilter index = loginIndex;
+        if (index != null && !index.mightContain(login)) {
+            if (loginIndexRefreshDue()) {
+                index = refreshLoginIndex();
+            }
+            if (index != null && !index.mightContain(login)) {
+                logger.debug("Логин {} отсутствует по индексу логинов", login);
+                return false;
+            }
+        }
+        return getPasswordByLogin(login) != null;
+    }
+
+    /**
+     * Возвращает открытое подключение к базе данных, открывая его при необходимости.
+     *
+     * @return подключение к базе данных.
+     * @throws SQLException если подключение не удалось открыть.
+     */
+    protected synchronized Connection connection() throws SQLException {
+        open();
+        return connection;
     }
 
     /**
      * Создает таблицу пользователей в базе данных, если она еще не существует.
+     * Вместе с ней создаётся счётчик удалений и переименований логинов, который ведут триггеры SQLite
+     * при любых изменениях, в том числе из других процессов: после удаления строк их rowid могут быть заняты
+     * заново, и индекс логинов по этому счётчику определяет, что его нужно перестроить.
+     *
+     * @param stmt запрос открываемого подключения.
+     * @throws SQLException если таблицу не удалось создать.
      */
-    private void createUsersTable() {
+    private void createUsersTable(Statement stmt) throws SQLException {
         String query = "CREATE TABLE IF NOT EXISTS users (" +
                 "login TEXT PRIMARY KEY," +
                 "password TEXT NOT NULL);";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(query);
-            logger.info("Таблица пользователей создана или уже существует.");
-        } catch (SQLException e) {
-            logger.error("Ошибка создания таблицы пользователей: {}", e.getMessage());
-        }
+        stmt.execute(query);
+        stmt.execute("CREATE TABLE IF NOT EXISTS users_changes (id INTEGER PRIMARY KEY CHECK (id = 0), removed INTEGER NOT NULL);");
+        stmt.execute("INSERT OR IGNORE INTO users_changes (id, removed) VALUES (0, 0);");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS users_login_deleted AFTER DELETE ON users " +
+                "BEGIN UPDATE users_changes SET removed = removed + 1; END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS users_login_renamed AFTER UPDATE OF login ON users " +
+                "BEGIN UPDATE users_changes SET removed = removed + 1; END;");
+        logger.info("Таблица пользователей создана или уже существует.");
     }
 
     /**
      * Получает пароль из базы данных по логину.
+     * Если подключён {@link LoginCache}, сначала проверяется кэш, в том числе закэшированное отсутствие логина.
+     * Если пароль сохранён с хешированием, возвращается его хеш.
      *
      * @param login логин пользователя.
      * @return пароль, если он найден, или null, если пользователя с таким логином нет.
      */
     public String getPasswordByLogin(String login) {
-        String query = "SELECT password FROM users WHERE login = ?;";
+        LoginCache cache = loginCache;
+        if (cache != null) {
+            LoginCache.Entry entry = cache.get(login);
+            if (entry != null) {
+                logger.debug("Результат поиска для логина {} взят из кэша", login);
+                return entry.password();
+            }
+        }
+        return queryPasswordByLogin(login, cache);
+    }
+
+    /**
+     * Получает пароль из базы данных по логину и сохраняет результат в кэш.
+     *
+     * @param login логин пользователя.
+     * @param cache кэш или {@code null}.
+     * @return пароль, если он найден, или null, если пользователя с таким логином нет.
+     */
+    private synchronized String queryPasswordByLogin(String login, LoginCache cache) {
         String password = null;
         logger.info("Получение пароля для логиина: {}", login);
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, login);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                password = rs.getString("password");
-                logger.info("Пароль для логина получен: {}", login);
-            } else {
-                logger.warn("Не найден пароль для логина: {}", login);
+        try {
+            if (selectStatement == null) {
+                selectStatement = connection().prepareStatement("SELECT password FROM users WHERE login = ?;");
+            }
+            long startTime = System.nanoTime();
+            selectStatement.setString(1, login);
+            try (ResultSet rs = selectStatement.executeQuery()) {
+                if (rs.next()) {
+                    password = rs.getString("password");
+                    logger.info("Пароль для логина получен: {}", login);
+                } else {
+                    logger.warn("Не найден пароль для логина: {}", login);
+                }
+            }
+            Metrics.get().recordDbLookup(System.nanoTime() - startTime);
+            if (cache != null) {
+                cache.put(login, password);
             }
         } catch (SQLException e) {
             logger.error("Ошибка получения пароля: {}", e.getMessage());
+            resetStatements();
         }
         return password;
     }
 
+    /**
+     * Проверяет пароль пользователя.
+     * Если включено хеширование и пароль сохранён открытым текстом или с меньшей стоимостью хеширования,
+     * после успешной проверки сохранённое значение заменяется хешем с текущей стоимостью.
+     *
+     * @param login    логин пользователя.
+     * @param password проверяемый пароль.
+     * @return {@code true}, если логин существует и пароль совпадает.
+     */
+    public boolean verifyPassword(String login, String password) {
+        PasswordHasher hasher = passwordHasher;
+        String stored = getPasswordByLogin(login);
+        if (stored == null) {
+            if (hasher != null) {
+                hasher.verifyDummy();
+            }
+            return false;
+        }
+        boolean valid = PasswordHasher.isHash(stored) ? PasswordHasher.verify(password, stored)
+                : MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        if (valid && hasher != null && hasher.needsRehash(stored)) {
+            updatePassword(login, stored, hasher.hash(password));
+        }
+        logger.info("Проверка пароля для логина {}: {}", login, valid ? "успешно" : "неверный пароль");
+        return valid;
+    }
+
+    /**
+     * Заменяет сохранённое значение пароля, если оно не изменилось с момента чтения.
+     *
+     * @param login    логин пользователя.
+     * @param expected прочитанное значение.
+     * @param stored   новое значение.
+     */
+    private synchronized void updatePassword(String login, String expected, String stored) {
+        try (PreparedStatement pstmt = connection().prepareStatement(
+                "UPDATE users SET password = ? WHERE login = ? AND password = ?;")) {
+            pstmt.setString(1, stored);
+            pstmt.setString(2, login);
+            pstmt.setString(3, expected);
+            if (pstmt.executeUpdate() > 0) {
+                logger.info("Хеш пароля для логина {} пересчитан", login);
+                if (loginCache != null) {
+                    loginCache.put(login, stored);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Ошибка пересчёта хеша пароля для логина {}: {}", login, e.getMessage());
+        }
+    }
+
     /**
      * Добавляет логин и пароль в базу данных.
+     * Если включено хеширование, сохраняется хеш пароля; он вычисляется до захвата подключения.
      *
      * @param login    логин пользователя.
      * @param password пароль пользователя.
+     * @return {@code true}, если строка добавлена; {@code false}, если логин уже существует или произошла ошибка.
      */
-    public void addPasswordToDatabase(String login, String password) {
-        String query = "INSERT INTO users (login, password) VALUES (?, ?);";
+    public boolean addPasswordToDatabase(String login, String password) {
         logger.info("Добавление пароль для логина: {}", login);
+        PasswordHasher hasher = passwordHasher;
+        return insertPassword(login, hasher == null ? password : hasher.hash(password));
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, login);
-            pstmt.setString(2, password);
-            pstmt.executeUpdate();
+    /**
+     * Добавляет логин и сохраняемое значение пароля в базу данных.
+     * Если логин уже существует, он добавляется в индекс логинов, на случай если индекс его не учёл.
+     *
+     * @param login    логин пользователя.
+     * @param password сохраняемое значение пароля.
+     * @return {@code true}, если строка добавлена.
+     */
+    private synchronized boolean insertPassword(String login, String password) {
+        try {
+            if (insertStatement == null) {
+                insertStatement = connection().prepareStatement("INSERT INTO users (login, password) VALUES (?, ?);");
+            }
+            long startTime = System.nanoTime();
+            insertStatement.setString(1, login);
+            insertStatement.setString(2, password);
+            insertStatement.executeUpdate();
+            Metrics.get().recordDbInsert(System.nanoTime() - startTime);
             logger.info("Добавлен пароль для логина: {}", login);
+            if (loginCache != null) {
+                loginCache.put(login, password);
+            }
+            if (loginIndex != null) {
+                loginIndex.add(login);
+            }
+            return true;
         } catch (SQLException e) {
             logger.error("Ошибка добавления пароля для входа {}: {}", login, e.getMessage());
+            resetStatements();
+            if (loginCache != null) {
+                loginCache.invalidate(login);
+            }
+            if (loginIndex != null && (e.getErrorCode() & 0xFF) == SQLITE_CONSTRAINT) {
+                loginIndex.add(login);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Пакетно записывает учётные данные из потока в базу данных порциями по умолчанию
+     * и пропускает уже существующие логины.
+     *
+     * @param credentials поток учётных данных.
+     * @return объект {@link BulkInsertResult} с итогами записи.
+     */
+    public BulkInsertResult addPasswordsToDatabase(Stream<Credential> credentials) {
+        return addPasswordsToDatabase(credentials.iterator(), DuplicatePolicy.SKIP, DEFAULT_CHUNK_SIZE, null);
+    }
+
+    /**
+     * Пакетно записывает учётные данные в базу данных порциями по умолчанию.
+     *
+     * @param credentials учётные данные.
+     * @param policy      способ обработки уже существующих логинов.
+     * @return объект {@link BulkInsertResult} с итогами записи.
+     */
+    public BulkInsertResult addPasswordsToDatabase(Iterable<Credential> credentials, DuplicatePolicy policy) {
+        return addPasswordsToDatabase(credentials.iterator(), policy, DEFAULT_CHUNK_SIZE, null);
+    }
+
+    /**
+     * Пакетно записывает учётные данные в базу данных.
+     * Строки читаются из итератора по мере записи и группируются в порции: каждая порция
+     * отправляется одним пакетом JDBC внутри отдельной транзакции, поэтому в памяти
+     * одновременно находится не более одной порции.
+     * При {@link DuplicatePolicy#FAIL} первая же ошибка откатывает текущую порцию и прерывает запись;
+     * ранее зафиксированные порции остаются в базе данных.
+     * <p>
+     * Получатель узнаёт фактический результат каждой строки. В режимах {@link DuplicatePolicy#UPSERT} и
+     * {@link DuplicatePolicy#FAIL} существование логина проверяется перед записью внутри той же транзакции,
+     * поэтому новые строки получают {@link InsertOutcome#INSERTED}, замены — {@link InsertOutcome#UPSERTED},
+     * а в отменённой порции конфликтующие строки — {@link InsertOutcome#FAILED}, остальные —
+     * {@link InsertOutcome#ROLLED_BACK}. Если порция отменена по другой причине, все её строки получают
+     * {@link InsertOutcome#FAILED}. Строки с результатами FAILED и ROLLED_BACK учитываются как незаписанные.
+     * <p>
+     * Если включено хеширование, пароли хешируются на пуле потоков {@link PasswordHasher} одновременно
+     * с записью предыдущих строк, а получатель результата получает учётные данные с хешами.
+     * Если запись прервана, хеши, вычисляемые заранее, отменяются.
+     *
+     * @param credentials итератор учётных данных.
+     * @param policy      способ обработки уже существующих логинов.
+     * @param chunkSize   количество строк в одной транзакции.
+     * @param listener    получатель результата по каждой строке или {@code null}.
+     * @return объект {@link BulkInsertResult} с итогами записи.
+     */
+    public BulkInsertResult addPasswordsToDatabase(Iterator<Credential> credentials, DuplicatePolicy policy,
+                                                   int chunkSize, BiConsumer<Credential, InsertOutcome> listener) {
+        return addPasswordsToDatabase(credentials, policy, chunkSize, listener, false);
+    }
+
+    /**
+     * Пакетно записывает учётные данные в базу данных, как
+     * {@link #addPasswordsToDatabase(Iterator, DuplicatePolicy, int, BiConsumer)}, с возможностью записать
+     * значения паролей без хеширования.
+     * <p>
+     * Значения, записанные без хеширования, проверяются как сохранённые хеши; значения не в формате хеша
+     * считаются паролями открытым текстом и пересчитываются при следующей успешной проверке.
+     *
+     * @param credentials итератор учётных данных.
+     * @param policy      способ обработки уже существующих логинов.
+     * @param chunkSize   количество строк в одной транзакции.
+     * @param listener    получатель результата по каждой строке или {@code null}.
+     * @param preHashed   {@code true}, если значения паролей уже хешированы (например, выгрузка базы данных)
+     *                    и записываются без изменений даже при подключённом хешировании.
+     * @return объект {@link BulkInsertResult} с итогами записи.
+     */
+    public synchronized BulkInsertResult addPasswordsToDatabase(Iterator<Credential> credentials, DuplicatePolicy policy,
+                                                                int chunkSize, BiConsumer<Credential, InsertOutcome> listener,
+                                                                boolean preHashed) {
+        PasswordHasher hasher = preHashed ? null : passwordHasher;
+        if (hasher == null) {
+            return insertAll(credentials, policy, chunkSize, listener);
+        }
+        try (PasswordHasher.HashIterator hashed = hasher.hashAll(credentials, chunkSize)) {
+            return insertAll(hashed, policy, chunkSize, listener);
+        }
+    }
+
+    /**
+     * Пакетно записывает учётные данные в базу данных без хеширования паролей.
+     *
+     * @param credentials итератор учётных данных.
+     * @param policy      способ обработки уже существующих логинов.
+     * @param chunkSize   количество строк в одной транзакции.
+     * @param listener    получатель результата по каждой строке или {@code null}.
+     * @return объект {@link BulkInsertResult} с итогами записи.
+     * @see #addPasswordsToDatabase(Iterator, DuplicatePolicy, int, BiConsumer)
+     */
+    private BulkInsertResult insertAll(Iterator<Credential> credentials, DuplicatePolicy policy,
+                                       int chunkSize, BiConsumer<Credential, InsertOutcome> listener) {
+        long startTime = System.nanoTime();
+        logger.info("Пакетное добавление паролей, обработка дубликатов: {}, размер порции: {}", policy, chunkSize);
+
+        String query;
+        switch (policy) {
+            case SKIP:
+                query = "INSERT OR IGNORE INTO users (login, password) VALUES (?, ?);";
+                break;
+            case UPSERT:
+                query = "INSERT INTO users (login, password) VALUES (?, ?) " +
+                        "ON CONFLICT(login) DO UPDATE SET password = excluded.password;";
+                break;
+            default:
+                query = "INSERT INTO users (login, password) VALUES (?, ?);";
+        }
+
+        long inserted = 0;
+        long skipped = 0;
+        long upserted = 0;
+        long failed = 0;
+        boolean aborted = false;
+        Credential[] chunk = new Credential[Math.max(1, chunkSize)];
+        // Логины, которые уже существуют в базе данных или раньше в порции (для UPSERT и FAIL)
+        boolean[] existing = policy == DuplicatePolicy.SKIP ? null : new boolean[chunk.length];
+        Set<String> chunkLogins = existing == null ? null : new HashSet<>();
+        LoginCache cache = loginCache;
+        LoginBloomFilter index = loginIndex;
+
+        try {
+            Connection conn = connection();
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(query);
+                 PreparedStatement exists = existing == null ? null
+                         : conn.prepareStatement("SELECT 1 FROM users WHERE login = ?;")) {
+                while (!aborted && credentials.hasNext()) {
+                    int count = 0;
+                    boolean conflict = false;
+                    while (count < chunk.length && credentials.hasNext()) {
+                        Credential credential = credentials.next();
+                        if (existing != null) {
+                            existing[count] = !chunkLogins.add(credential.getLogin()) || loginStored(exists, credential.getLogin());
+                            conflict |= existing[count];
+                        }
+                        pstmt.setString(1, credential.getLogin());
+                        pstmt.setString(2, credential.getPassword());
+                        pstmt.addBatch();
+                        chunk[count++] = credential;
+                    }
+
+                    if (chunkLogins != null) {
+                        chunkLogins.clear();
+                    }
+                    int[] updates;
+                    try {
+                        updates = pstmt.executeBatch();
+                        conn.commit();
+                    } catch (SQLException e) {
+                        logger.error("Ошибка пакетного добавления паролей, порция отменена: {}", e.getMessage());
+                        conn.rollback();
+                        pstmt.clearBatch();
+                        updates = null;
+                        aborted = true;
+                    }
+
+                    for (int i = 0; i < count; i++) {
+                        InsertOutcome outcome;
+                        if (updates == null) {
+                            outcome = conflict && !existing[i] ? InsertOutcome.ROLLED_BACK : InsertOutcome.FAILED;
+                            failed++;
+                        } else if (policy == DuplicatePolicy.UPSERT && existing[i]) {
+                            outcome = InsertOutcome.UPSERTED;
+                            upserted++;
+                        } else if (updates[i] > 0) {
+                            outcome = InsertOutcome.INSERTED;
+                            inserted++;
+                        } else {
+                            outcome = InsertOutcome.SKIPPED;
+                            skipped++;
+                        }
+                        if (cache != null) {
+                            if (outcome == InsertOutcome.INSERTED || outcome == InsertOutcome.UPSERTED) {
+                                cache.put(chunk[i].getLogin(), chunk[i].getPassword());
+                            } else {
+                                cache.invalidate(chunk[i].getLogin());
+                            }
+                        }
+                        if (index != null && outcome != InsertOutcome.FAILED && outcome != InsertOutcome.ROLLED_BACK) {
+                            index.add(chunk[i].getLogin());
+                        }
+                        if (listener != null) {
+                            listener.accept(chunk[i], outcome);
+                        }
+                        chunk[i] = null;
+                    }
+                    logger.debug("Порция из {} строк обработана", count);
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            logger.error("Ошибка пакетного добавления паролей: {}", e.getMessage());
+            aborted = true;
+        }
+
+        long generationTime = System.nanoTime() - startTime;
+        logger.info("Пакетное добавление завершено за {} наносекунд: добавлено {}, пропущено {}, заменено {}, ошибок {}",
+                generationTime, inserted, skipped, upserted, failed);
+        return new BulkInsertResult(inserted, skipped, upserted, failed, aborted, generationTime);
+    }
+
+    /**
+     * Проверяет, есть ли логин в базе данных.
+     *
+     * @param exists подготовленный запрос проверки логина.
+     * @param login  логин.
+     * @return {@code true}, если логин уже записан.
+     * @throws SQLException если произошла ошибка чтения.
+     */
+    private static boolean loginStored(PreparedStatement exists, String login) throws SQLException {
+        exists.setString(1, login);
+        try (ResultSet rs = exists.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Последовательно передаёт все учётные данные из базы данных получателю.
+     * Строки читаются курсором порциями, поэтому объём памяти не зависит от размера таблицы.
+     *
+     * @param action получатель учётных данных.
+     * @return количество переданных строк.
+     * @throws SQLException если произошла ошибка чтения.
+     */
+    public synchronized long forEachCredential(Consumer<Credential> action) throws SQLException {
+        long count = 0;
+        try (Statement stmt = connection().createStatement()) {
+            stmt.setFetchSize(DEFAULT_CHUNK_SIZE);
+            try (ResultSet rs = stmt.executeQuery("SELECT login, password FROM users;")) {
+                while (rs.next()) {
+                    action.accept(new Credential(rs.getString(1), rs.getString(2)));
+                    count++;
+                }
+            }
+        }
+        logger.info("Прочитано {} строк учётных данных", count);
+        return count;
+    }
+
+    /**
+     * Выгружает все учётные данные из базы данных в файл.
+     * Строки читаются курсором и записываются потоково через {@link CredentialWriter},
+     * поэтому объём памяти не зависит от размера таблицы.
+     *
+     * @param file   путь к файлу; существующий файл перезаписывается.
+     * @param format формат файла.
+     * @return количество выгруженных строк.
+     * @throws IOException  если произошла ошибка записи файла.
+     * @throws SQLException если произошла ошибка чтения базы данных.
+     */
+    public long exportCredentials(Path file, CredentialFormat format) throws IOException, SQLException {
+        long startTime = System.nanoTime();
+        logger.info("Выгрузка учётных данных в файл {} в формате {}", file, format);
+        long count;
+        long bytes;
+        try (CredentialWriter writer = CredentialWriter.open(file, format)) {
+            try {
+                forEachCredential(credential -> {
+                    try {
+                        writer.write(credential);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            count = writer.getCount();
+            bytes = writer.getBytes();
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        logger.info("Выгружено {} строк ({} байт) за {} с: {} строк/с, {} МБ/с", count, bytes,
+                String.format("%.3f", seconds), Math.round(count / seconds),
+                String.format("%.1f", bytes / seconds / (1 << 20)));
+        return count;
+    }
+
+    /**
+     * Загружает учётные данные из файла в базу данных. Если подключено хеширование, пароли из файла хешируются.
+     *
+     * @param file   путь к файлу.
+     * @param format формат файла.
+     * @param policy способ обработки уже существующих логинов.
+     * @return объект {@link BulkInsertResult} с итогами записи.
+     * @throws IOException если файл не удалось прочитать.
+     * @see #importCredentials(Path, CredentialFormat, DuplicatePolicy, boolean)
+     */
+    public BulkInsertResult importCredentials(Path file, CredentialFormat format, DuplicatePolicy policy)
+            throws IOException {
+        return importCredentials(file, format, policy, false);
+    }
+
+    /**
+     * Загружает учётные данные из файла в базу данных.
+     * Файл читается потоково через {@link CredentialReader} и передаётся в пакетную запись
+     * {@link #addPasswordsToDatabase(Iterator, DuplicatePolicy, int, BiConsumer, boolean)}.
+     * Если файл повреждён, чтение прерывается с исключением; ранее зафиксированные порции остаются в базе данных.
+     *
+     * @param file      путь к файлу.
+     * @param format    формат файла.
+     * @param policy    способ обработки уже существующих логинов.
+     * @param preHashed {@code true}, если файл является выгрузкой базы данных с уже хешированными паролями
+     *                  и значения записываются без изменений; {@code false}, чтобы хешировать каждое значение,
+     *                  если подключено хеширование.
+     * @return объект {@link BulkInsertResult} с итогами записи.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public BulkInsertResult importCredentials(Path file, CredentialFormat format, DuplicatePolicy policy, boolean preHashed)
+            throws IOException {
+        logger.info("Загрузка учётных данных из файла {} в формате {}, без хеширования: {}", file, format, preHashed);
+        try (CredentialReader reader = CredentialReader.open(file, format)) {
+            BulkInsertResult result = addPasswordsToDatabase(reader, policy, DEFAULT_CHUNK_SIZE, null, preHashed);
+            logger.info("Загружено {} строк: {} строк/с", reader.getCount(), Math.round(result.getRowsPerSecond()));
+            return result;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Закрывает подготовленные запросы после ошибки, чтобы следующий вызов подготовил их заново.
+     */
+    private void resetStatements() {
+        try {
+            closeStatements();
+        } catch (SQLException e) {
+            logger.error("Ошибка закрытия подготовленных запросов: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Закрывает подготовленные запросы.
+     *
+     * @throws SQLException если запрос не удалось закрыть.
+     */
+    private void closeStatements() throws SQLException {
+        try {
+            if (selectStatement != null) {
+                selectStatement.close();
+            }
+            if (insertStatement != null) {
+                insertStatement.close();
+            }
+        } finally {
+            selectStatement = null;
+            insertStatement = null;
         }
     }
 }
@@ -0,0 +1,177 @@
+package org.example.PasswordGeneratorKP;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Множество 32-битных отпечатков вне кучи Java: открытая адресация с линейным пробированием
+ * в прямом {@link ByteBuffer}. Каждый элемент занимает 4 байта, а с учётом заполнения
+ * таблицы не более чем на 3/4 — в среднем от 5,3 до 10,7 байта, поэтому сотни миллионов
+ * элементов не нагружают кучу и сборщик мусора.
+ * <p>
+ * Нулевой отпечаток зарезервирован для пустых ячеек. Множество не потокобезопасно.
+ */
+final class FingerprintSet {
+
+    /**
+     * Максимальное количество ячеек таблицы: размер прямого буфера ограничен 2 ГБ.
+     */
+    static final int MAX_CAPACITY = 1 << 29;
+
+    // Минимальное количество ячеек таблицы
+    private static final int MIN_CAPACITY = 16;
+
+    private ByteBuffer table;
+    private int mask;
+    private long size;
+
+    /**
+     * Конструктор множества.
+     *
+     * @param expectedSize ожидаемое количество элементов; таблица увеличивается при необходимости.
+     * @throws IllegalArgumentException если ожидаемое количество превышает максимальную вместимость.
+     */
+    FingerprintSet(long expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Добавляет отпечаток в множество.
+     *
+     * @param fingerprint ненулевой отпечаток.
+     * @return {@code true}, если отпечатка ещё не было в множестве.
+     * @throws IllegalStateException если множество заполнено до максимальной вместимости.
+     */
+    boolean add(int fingerprint) {
+        int slot = slot(fingerprint);
+        while (true) {
+            int value = table.getInt(slot << 2);
+            if (value == fingerprint) {
+                return false;
+            }
+            if (value == 0) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size + 1 > maxSize()) {
+            grow();
+            return add(fingerprint);
+        }
+        table.putInt(slot << 2, fingerprint);
+        size++;
+        return true;
+    }
+
+    /**
+     * Проверяет, есть ли отпечаток в множестве.
+     *
+     * @param fingerprint ненулевой отпечаток.
+     * @return {@code true}, если отпечаток есть в множестве.
+     */
+    boolean contains(int fingerprint) {
+        int slot = slot(fingerprint);
+        while (true) {
+            int value = table.getInt(slot << 2);
+            if (value == fingerprint) {
+                return true;
+            }
+            if (value == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Возвращает количество элементов.
+     *
+     * @return количество элементов.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Возвращает объём памяти вне кучи, занятый таблицей.
+     *
+     * @return объём памяти в байтах.
+     */
+    long memoryBytes() {
+        return table.capacity();
+    }
+
+    /**
+     * Увеличивает таблицу вдвое и переносит в неё все отпечатки.
+     *
+     * @throws IllegalStateException если таблица уже имеет максимальный размер.
+     */
+    private void grow() {
+        int capacity = mask + 1;
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Множество отпечатков заполнено: " + size + " элементов.");
+        }
+        ByteBuffer old = table;
+        allocate(capacity << 1);
+        for (int offset = 0; offset < old.capacity(); offset += 4) {
+            int fingerprint = old.getInt(offset);
+            if (fingerprint != 0) {
+                int slot = slot(fingerprint);
+                while (table.getInt(slot << 2) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table.putInt(slot << 2, fingerprint);
+            }
+        }
+    }
+
+    /**
+     * Выделяет пустую таблицу.
+     *
+     * @param capacity количество ячеек (степень двойки).
+     */
+    private void allocate(int capacity) {
+        table = ByteBuffer.allocateDirect(capacity << 2).order(ByteOrder.nativeOrder());
+        mask = capacity - 1;
+    }
+
+    /**
+     * Возвращает максимальное количество элементов при текущем размере таблицы.
+     *
+     * @return максимальное количество элементов.
+     */
+    private long maxSize() {
+        return (mask + 1L) / 4 * 3;
+    }
+
+    /**
+     * Вычисляет начальную ячейку для отпечатка (финальное перемешивание MurmurHash3).
+     *
+     * @param fingerprint отпечаток.
+     * @return номер ячейки.
+     */
+    private int slot(int fingerprint) {
+        int h = fingerprint;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    /**
+     * Вычисляет количество ячеек для ожидаемого количества элементов.
+     *
+     * @param expectedSize ожидаемое количество элементов.
+     * @return количество ячеек (степень двойки).
+     * @throws IllegalArgumentException если ожидаемое количество превышает максимальную вместимость.
+     */
+    private static int capacityFor(long expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (expectedSize * 4 + 2) / 3);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Слишком много элементов для множества отпечатков: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.PasswordGeneratorKP;
 
 import javafx.application.Application;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -17,6 +18,15 @@ import javafx.scene.layout.CornerRadii;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
 /**
  * Класс для графического интерфейса приложения.
  * Он предоставляет функционал для ввода параметров, генерации паролей и взаимодействия с пользователем.
@@ -25,7 +35,29 @@ public class GUI extends Application {
 
     private static final Logger logger = LogManager.getLogger(GUI.class);
 
+    // Параметры индекса существования логинов
+    private static final long LOGIN_INDEX_EXPECTED_INSERTIONS = 1000000;
+    private static final double LOGIN_INDEX_FALSE_POSITIVE_RATE = 0.01;
+    private static final Path LOGIN_INDEX_FILE = Path.of("logins.bloom");
+
+    // Максимальное количество символов пароля, выводимых в область результатов
+    private static final int DISPLAY_LIMIT = 10000;
+
+    // Длина, начиная с которой пароль генерируется фрагментами с отображением прогресса
+    private static final int PROGRESS_THRESHOLD = 100000;
+
+    // Фоновый поток для генерации паролей и операций с базой данных
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "gui-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private PasswordGenerator passwordGenerator = new PasswordGenerator();
+
+    // Пул готовых паролей: повторные нажатия кнопки генерации с теми же параметрами не ждут генерации
+    private final PasswordPool passwordPool = new PasswordPool(passwordGenerator);
+    private DatabaseManager databaseManager;
     private long ttime;
     private String psswrd;
 
@@ -35,6 +67,12 @@ public class GUI extends Application {
     private CheckBox useUppercaseCheckBox;
     private CheckBox useDigitsCheckBox;
     private CheckBox useSpecialCharsCheckBox;
+    private Button generateButton;
+    private Button checkButton;
+    private Button addButton;
+    private Button cancelButton;
+    private ProgressBar progressBar;
+    private Task<?> currentTask;
 
     /**
      * Метод main является точкой входа в приложение.
@@ -51,6 +89,9 @@ public class GUI extends Application {
     @Override
     public void start(Stage primaryStage) {
         logger.info("Запуск GUI приложения.");
+        // Регистрация в JMX загружает подсистему управления, поэтому выполняется в фоне
+        Metrics.get().setPasswordPool(passwordPool);
+        executor.execute(() -> Metrics.get().registerMBean());
         primaryStage.setTitle("Генератор паролей");
 
         // Настройка макета
@@ -87,16 +128,24 @@ public class GUI extends Application {
         grid.add(useSpecialCharsCheckBox, 0, 4, 2, 1);
 
         // Кнопки
-        Button generateButton = new Button("Сгенерировать пароль");
+        generateButton = new Button("Сгенерировать пароль");
         Button timeButton = new Button("Посчитать время генерации");
-        Button checkButton = new Button("Проверить пароль");
-        Button addButton = new Button("Добавить пароль");
+        checkButton = new Button("Проверить пароль");
+        addButton = new Button("Добавить пароль");
+        cancelButton = new Button("Отмена");
+        cancelButton.setDisable(true);
 
         grid.add(generateButton, 0, 5);
         grid.add(timeButton, 1, 5);
         grid.add(checkButton, 0, 6);
         grid.add(addButton, 1, 6);
 
+        // Индикатор выполнения фоновой операции
+        progressBar = new ProgressBar(0);
+        progressBar.setVisible(false);
+        grid.add(progressBar, 0, 7);
+        grid.add(cancelButton, 1, 7);
+
         // Область для отображения результатов
         resultArea = new TextArea();
         resultArea.setWrapText(true);
@@ -115,15 +164,47 @@ public class GUI extends Application {
         timeButton.setOnAction(e -> calculateTimeAction());
         checkButton.setOnAction(e -> checkPasswordAction());
         addButton.setOnAction(e -> addPasswordAction());
+        cancelButton.setOnAction(e -> cancelAction());
 
         Scene scene = new Scene(vbox, 600, 400);
         primaryStage.setScene(scene);
         primaryStage.show();
     }
 
+    /**
+     * Метод stop вызывается при закрытии приложения.
+     * Сохраняет индекс логинов и закрывает подключение к базе данных.
+     */
+    @Override
+    public void stop() {
+        logger.info("Завершение GUI приложения.");
+        executor.shutdownNow();
+        passwordPool.close();
+        synchronized (this) {
+            if (databaseManager != null) {
+                databaseManager.close();
+            }
+        }
+    }
+
+    /**
+     * Возвращает менеджер базы данных, создавая его при первом обращении.
+     * Генерация паролей базу данных не использует, поэтому подключение
+     * открывается только при первой операции с паролями пользователей.
+     *
+     * @return менеджер базы данных.
+     */
+    private synchronized DatabaseManager databaseManager() {
+        if (databaseManager == null) {
+            databaseManager = new DatabaseManager();
+            databaseManager.enableLoginIndex(LOGIN_INDEX_EXPECTED_INSERTIONS, LOGIN_INDEX_FALSE_POSITIVE_RATE, LOGIN_INDEX_FILE);
+        }
+        return databaseManager;
+    }
+
     /**
      * Обработчик для кнопки "Сгенерировать пароль".
-     * Выполняет генерацию пароля на основе введённых пользователем параметров.
+     * Проверяет параметры и запускает генерацию пароля в фоновом потоке.
      */
     private void generatePasswordAction() {
         logger.info("Нажата кнопка генерации пароля.");
@@ -148,12 +229,19 @@ public class GUI extends Application {
                 throw new PasswordGeneratorException("Длина пароля должна быть не менее " + requiredLength + ".");
             }
 
-            PasswordResult result = passwordGenerator.generatePassword(length, useUppercase, useDigits, useSpecialChars);
-            psswrd = result.getPassword();
-            ttime = result.getGenerationTime();
+            if (length > PasswordGenerator.MAX_LENGTH) {
+                throw new PasswordGeneratorException("Длина пароля слишком велика.");
+            }
+
+            resultArea.setText("Генерация пароля...");
+            runInBackground(new GenerationTask(passwordGenerator, passwordPool, length, useUppercase, useDigits, useSpecialChars), result -> {
+                psswrd = result.getPassword();
+                ttime = result.getGenerationTime();
 
-            logger.info("Пароль успешно сгенерирован.");
-            resultArea.setText("Сгенерированный пароль: " + psswrd);
+                logger.info("Пароль успешно сгенерирован.");
+                resultArea.setText("Сгенерированный пароль: " + truncate(psswrd)
+                        + "\nНадёжность: " + result.getStrength());
+            });
         } catch (NumberFormatException ex) {
             logger.error("Ошибка ввода длины пароля: {}", lengthField.getText(), ex);
             resultArea.setText("Введите корректную длину пароля.");
@@ -182,7 +270,7 @@ public class GUI extends Application {
 
     /**
      * Обработчик для кнопки "Проверить пароль".
-     * Выполняет поиск пароля по логину в базе данных.
+     * Выполняет поиск пароля по логину в базе данных в фоновом потоке.
      */
     private void checkPasswordAction() {
         logger.info("Нажата кнопка проверки пароля.");
@@ -194,36 +282,210 @@ public class GUI extends Application {
             return;
         }
 
-        String password = passwordGenerator.getPasswordByLogin(login);
-        if (password != null) {
-            logger.info("Пароль найден для логина: {}", login);
-            resultArea.setText("Пароль для логина '" + login + "': " + password);
-        } else {
-            logger.warn("Пароль не найден для логина: {}", login);
-            resultArea.setText("Пароль не найден для логина '" + login + "'.");
-        }
+        runInBackground(task(() -> databaseManager().getPasswordByLogin(login)), password -> {
+            if (password != null) {
+                logger.info("Пароль найден для логина: {}", login);
+                resultArea.setText("Пароль для логина '" + login + "': " + truncate(password));
+            } else {
+                logger.warn("Пароль не найден для логина: {}", login);
+                resultArea.setText("Пароль не найден для логина '" + login + "'.");
+            }
+        });
     }
 
     /**
      * Обработчик для кнопки "Добавить пароль".
-     * Добавляет сгенерированный пароль в базу данных для указанного логина.
+     * Добавляет сгенерированный пароль в базу данных для указанного логина в фоновом потоке.
      */
     private void addPasswordAction() {
         logger.info("Нажата кнопка добавления пароля.");
         String login = loginField.getText();
+        String password = psswrd;
 
-        if (login.isEmpty() || psswrd == null || psswrd.isEmpty()) {
-            logger.warn("Логин или пароль пустой. Логин: {}, Пароль: {}", login, psswrd);
+        if (login.isEmpty() || password == null || password.isEmpty()) {
+            logger.warn("Логин или пароль пустой. Логин: {}, Пароль: {}", login, SecretRedactor.redact(password));
             resultArea.setText("Введите логин и сгенерируйте пароль.");
             return;
-        } else if (passwordGenerator.getPasswordByLogin(login) != null) {
-            logger.warn("Логин '{}' уже используется.", login);
-            resultArea.setText("Этот логин уже используется.");
-            return;
         }
 
-        passwordGenerator.addPasswordToDatabase(login, psswrd);
-        logger.info("Пароль успешно добавлен для логина: {}", login);
-        resultArea.setText("Пароль успешно добавлен для логина: " + login);
+        runInBackground(task(() -> {
+            // Индекс логинов быстро отвечает на занятые логины, окончательную проверку выполняет добавление
+            DatabaseManager manager = databaseManager();
+            return !manager.loginExists(login) && manager.addPasswordToDatabase(login, password);
+        }), added -> {
+            if (!added) {
+                logger.warn("Логин '{}' уже используется.", login);
+                resultArea.setText("Этот логин уже используется.");
+                return;
+            }
+            logger.info("Пароль успешно добавлен для логина: {}", login);
+            resultArea.setText("Пароль успешно добавлен для логина: " + login);
+        });
+    }
+
+    /**
+     * Обработчик для кнопки "Отмена".
+     * Отменяет выполняющуюся фоновую операцию.
+     */
+    private void cancelAction() {
+        logger.info("Нажата кнопка отмены.");
+        if (currentTask != null) {
+            currentTask.cancel(true);
+        }
+    }
+
+    /**
+     * Запускает задачу в фоновом потоке. На время выполнения блокирует кнопки операций,
+     * показывает прогресс и включает кнопку отмены. Результат передаётся обработчику
+     * в потоке JavaFX.
+     *
+     * @param task      фоновая задача.
+     * @param onSuccess обработчик результата задачи.
+     * @param <T>       тип результата задачи.
+     */
+    private <T> void runInBackground(Task<T> task, Consumer<T> onSuccess) {
+        currentTask = task;
+        setBusy(true);
+        progressBar.progressProperty().bind(task.progressProperty());
+
+        task.setOnSucceeded(e -> {
+            setBusy(false);
+            onSuccess.accept(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            setBusy(false);
+            Throwable ex = task.getException();
+            logger.error("Ошибка фоновой операции: {}", ex.getMessage(), ex);
+            resultArea.setText(ex.getMessage());
+        });
+        task.setOnCancelled(e -> {
+            setBusy(false);
+            logger.info("Фоновая операция отменена.");
+            resultArea.setText("Операция отменена.");
+        });
+        executor.execute(task);
+    }
+
+    /**
+     * Переключает интерфейс в режим выполнения фоновой операции и обратно.
+     *
+     * @param busy выполняется ли фоновая операция.
+     */
+    private void setBusy(boolean busy) {
+        generateButton.setDisable(busy);
+        checkButton.setDisable(busy);
+        addButton.setDisable(busy);
+        cancelButton.setDisable(!busy);
+        progressBar.setVisible(busy);
+        if (!busy) {
+            progressBar.progressProperty().unbind();
+            progressBar.setProgress(0);
+            currentTask = null;
+        }
+    }
+
+    /**
+     * Обрезает длинный пароль для вывода в область результатов.
+     *
+     * @param password пароль.
+     * @return пароль целиком или его начало с указанием полной длины.
+     */
+    private static String truncate(String password) {
+        if (password.length() <= DISPLAY_LIMIT) {
+            return password;
+        }
+        return password.substring(0, DISPLAY_LIMIT) + "… (показано " + DISPLAY_LIMIT + " из " + password.length() + " символов)";
+    }
+
+    /**
+     * Создаёт фоновую задачу из вызова без отображения прогресса.
+     *
+     * @param callable выполняемый вызов.
+     * @param <T>      тип результата.
+     * @return фоновая задача.
+     */
+    private static <T> Task<T> task(Callable<T> callable) {
+        return new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                updateProgress(-1, 1);
+                return callable.call();
+            }
+        };
+    }
+
+    /**
+     * Фоновая задача генерации пароля.
+     * Короткие пароли выдаются из пула готовых паролей или генерируются целиком, длинные — фрагментами через
+     * {@link PasswordGenerator#writePassword(Writer, long, boolean, boolean, boolean)},
+     * что позволяет показывать прогресс и прерывать генерацию при отмене. Оценка надёжности пароля
+     * также вычисляется в фоне.
+     */
+    private static final class GenerationTask extends Task<PasswordResult> {
+
+        private final PasswordGenerator generator;
+        private final PasswordPool pool;
+        private final int length;
+        private final boolean useUppercase;
+        private final boolean useDigits;
+        private final boolean useSpecialChars;
+
+        GenerationTask(PasswordGenerator generator, PasswordPool pool, int length, boolean useUppercase, boolean useDigits,
+                       boolean useSpecialChars) {
+            this.generator = generator;
+            this.pool = pool;
+            this.length = length;
+            this.useUppercase = useUppercase;
+            this.useDigits = useDigits;
+            this.useSpecialChars = useSpecialChars;
+        }
+
+        @Override
+        protected PasswordResult call() throws Exception {
+            if (length < PROGRESS_THRESHOLD) {
+                updateProgress(-1, 1);
+                return withStrength(pool.take(length, useUppercase, useDigits, useSpecialChars));
+            }
+
+            char[] password = new char[length];
+            Writer writer = new Writer() {
+                private int written;
+
+                @Override
+                public void write(char[] cbuf, int off, int len) throws InterruptedIOException {
+                    if (isCancelled()) {
+                        throw new InterruptedIOException("Генерация пароля отменена.");
+                    }
+                    System.arraycopy(cbuf, off, password, written, len);
+                    written += len;
+                    updateProgress(written, length);
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            try {
+                Result result = generator.writePassword(writer, length, useUppercase, useDigits, useSpecialChars);
+                return withStrength(new PasswordResult(new String(password), result.getGenerationTime()));
+            } finally {
+                Arrays.fill(password, '\0');
+            }
+        }
+
+        /**
+         * Вычисляет оценку надёжности в фоновом потоке, чтобы не загружать словарь в потоке интерфейса.
+         *
+         * @param result результат генерации.
+         * @return тот же результат генерации.
+         */
+        private static PasswordResult withStrength(PasswordResult result) {
+            result.getStrength();
+            return result;
+        }
     }
 }
@@ -0,0 +1,110 @@
+package org.example.PasswordGeneratorKP;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный тест HTTP-сервиса генерации паролей.
+ * Несколько потоков отправляют запросы по одному URL, пока не будет отправлено заданное количество запросов,
+ * после чего выводятся пропускная способность по успешным ответам и перцентили задержки.
+ */
+public class HttpLoadTest {
+
+    private final URI uri;
+    private final int concurrency;
+    private final int requests;
+
+    /**
+     * Конструктор нагрузочного теста.
+     *
+     * @param uri         адрес запроса.
+     * @param concurrency количество одновременных клиентов.
+     * @param requests    общее количество запросов.
+     */
+    public HttpLoadTest(URI uri, int concurrency, int requests) {
+        this.uri = uri;
+        this.concurrency = concurrency;
+        this.requests = requests;
+    }
+
+    /**
+     * Выполняет нагрузочный тест и выводит результаты.
+     *
+     * @param out поток для вывода результатов.
+     * @throws InterruptedException если ожидание клиентов было прервано.
+     */
+    public void run(PrintStream out) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long[] latencies = new long[requests];
+        AtomicLong next = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long startTime = System.nanoTime();
+        Future<?>[] futures = new Future<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            futures[i] = clients.submit(() -> {
+                long index;
+                while ((index = next.getAndIncrement()) < requests) {
+                    long requestStart = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 503) {
+                            rejected.incrementAndGet();
+                        } else if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        failed.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[(int) index] = System.nanoTime() - requestStart;
+                }
+            });
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (java.util.concurrent.ExecutionException e) {
+                failed.incrementAndGet();
+            }
+        }
+        long totalTime = System.nanoTime() - startTime;
+        clients.shutdown();
+
+        Arrays.sort(latencies);
+        out.printf("Запросов: %d, клиентов: %d, время: %.2f с%n", requests, concurrency, totalTime / 1e9);
+        long succeeded = requests - rejected.get() - failed.get();
+        out.printf("Пропускная способность: %.1f успешных ответов/с (всего %.1f запросов/с)%n",
+                succeeded * 1e9 / totalTime, requests * 1e9 / totalTime);
+        out.printf("Задержка, мкс: p50=%d p90=%d p99=%d max=%d%n",
+                percentile(latencies, 0.50) / 1000, percentile(latencies, 0.90) / 1000,
+                percentile(latencies, 0.99) / 1000, latencies[latencies.length - 1] / 1000);
+        out.printf("Отклонено (503): %d, ошибок: %d%n", rejected.get(), failed.get());
+    }
+
+    /**
+     * Возвращает перцентиль отсортированного массива.
+     *
+     * @param sorted     отсортированный массив.
+     * @param percentile перцентиль от 0 до 1.
+     * @return значение перцентиля.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
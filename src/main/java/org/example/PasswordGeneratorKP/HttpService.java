@@ -0,0 +1,526 @@
+package org.example.PasswordGeneratorKP;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Встроенный HTTP-сервис генерации паролей на основе {@code com.sun.net.httpserver}.
+ * <p>
+ * Запросы:
+ * <ul>
+ *     <li>{@code GET /generate?length=12&uppercase=true&digits=true&special=true} — один пароль;</li>
+ *     <li>{@code GET /generate/batch?count=100&length=12&...} — пакет паролей;</li>
+ *     <li>{@code GET /metrics} — метрики приложения в текстовом формате Prometheus.</li>
+ * </ul>
+ * Ответы на запросы генерации возвращаются в формате JSON. Запросы обрабатываются пулом потоков фиксированного размера
+ * с ограниченной очередью; при её переполнении сервис сразу отвечает {@code 503 Service Unavailable},
+ * а не накапливает запросы без ограничения. Отклонённые запросы читаются и получают ответ 503 в отдельном небольшом
+ * пуле потоков, поэтому медленный клиент во время перегрузки не задерживает поток приёма подключений.
+ * Очередь этого пула тоже ограничена: если и она заполнена (например, её заняли медленные клиенты),
+ * подключение сразу закрывается без чтения запроса, и память не растёт при любом потоке подключений.
+ * <p>
+ * Если подключён {@link PasswordPool}, одиночные пароли выдаются из пула заранее сгенерированных паролей.
+ * <p>
+ * Заголовки и тело ответа записываются в сокет отдельно, поэтому без {@code TCP_NODELAY} каждый ответ задерживается
+ * алгоритмом Нейгла. Сервер JDK включает его только глобальным свойством {@value #NODELAY_PROPERTY}, которое
+ * читается при создании первого сервера в процессе и действует на все серверы. Сервис его не меняет: команда
+ * {@code serve} устанавливает его до запуска, а при встраивании сервиса свойство нужно задать самостоятельно,
+ * например {@code -Dsun.net.httpserver.nodelay=true}.
+ */
+public class HttpService {
+
+    private static final Logger logger = LogManager.getLogger(HttpService.class);
+
+    /**
+     * Системное свойство сервера JDK, включающее {@code TCP_NODELAY} для всех его подключений.
+     */
+    public static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    // Ограничения запроса
+    private static final int MAX_QUERY_LENGTH = 1024;
+    private static final int MAX_BATCH_COUNT = 10000;
+
+    // Размер буфера ответа, который сохраняется между запросами
+    private static final int RETAINED_BUFFER_SIZE = 65536;
+
+    // Количество потоков, отвечающих 503 на отклонённые запросы, и размер их очереди
+    private static final int REJECTION_THREADS = 2;
+    private static final int REJECTION_QUEUE_CAPACITY = 16;
+
+    // Признак того, что запрос выполняется вне пула из-за переполнения очереди
+    private static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+
+    // Переиспользуемый буфер для формирования ответа
+    private static final ThreadLocal<StringBuilder> RESPONSE_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor rejectionExecutor;
+    private final PasswordGenerator generator = new PasswordGenerator();
+    private final PasswordPool passwordPool;
+
+    // Счётчики запросов
+    private final LongAdder served = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param port          порт для входящих подключений (0 — любой свободный).
+     * @param workers       количество потоков обработки запросов.
+     * @param queueCapacity максимальное количество запросов, ожидающих обработки.
+     * @throws IOException если не удалось открыть порт.
+     */
+    public HttpService(int port, int workers, int queueCapacity) throws IOException {
+        this(port, workers, queueCapacity, null);
+    }
+
+    /**
+     * Конструктор сервиса с пулом заранее сгенерированных паролей.
+     *
+     * @param port          порт для входящих подключений (0 — любой свободный).
+     * @param workers       количество потоков обработки запросов.
+     * @param queueCapacity максимальное количество запросов, ожидающих обработки.
+     * @param passwordPool  пул паролей для одиночных запросов или {@code null}, если пароли генерируются при запросе.
+     * @throws IOException если не удалось открыть порт.
+     */
+    public HttpService(int port, int workers, int queueCapacity, PasswordPool passwordPool) throws IOException {
+        this.passwordPool = passwordPool;
+        AtomicInteger rejectionThreadNumber = new AtomicInteger();
+        this.rejectionExecutor = new ThreadPoolExecutor(REJECTION_THREADS, REJECTION_THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REJECTION_QUEUE_CAPACITY),
+                r -> {
+                    Thread thread = new Thread(r, "http-reject-" + rejectionThreadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "http-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> reject(task));
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        Filter overload = new OverloadFilter();
+        server.createContext("/generate", this::handle).getFilters().add(overload);
+        server.createContext("/metrics", this::handleMetrics).getFilters().add(overload);
+    }
+
+    /**
+     * Запускает приём запросов.
+     */
+    public void start() {
+        server.start();
+        logger.info("HTTP-сервис запущен на порту {}", getPort());
+    }
+
+    /**
+     * Останавливает приём запросов и пул потоков.
+     *
+     * @param delaySeconds время ожидания завершения текущих запросов в секундах.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        rejectionExecutor.shutdown();
+        logger.info("HTTP-сервис остановлен, обработано запросов: {}, ошибок в запросах: {}, отклонено: {}, из них закрыто без ответа: {}",
+                served.sum(), errors.sum(), rejected.sum(), dropped.sum());
+    }
+
+    /**
+     * Отклоняет запрос, не поместившийся в очередь: передаёт его пулу отклонений, где фильтр ответит 503,
+     * а если заполнена и очередь пула отклонений, закрывает подключение.
+     *
+     * @param exchange задача сервера JDK, которая читает запрос и вызывает обработчик.
+     */
+    private void reject(Runnable exchange) {
+        try {
+            rejectionExecutor.execute(() -> {
+                REJECTED.set(Boolean.TRUE);
+                try {
+                    exchange.run();
+                } finally {
+                    REJECTED.remove();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            drop(exchange);
+        }
+    }
+
+    /**
+     * Закрывает подключение, не читая запрос и не занимая потоков.
+     * Сервер JDK не даёт доступа к сокету до чтения запроса, поэтому задача сервера выполняется в прерванном
+     * потоке: первое же чтение из прерываемого канала сокета закрывает его ({@link java.nio.channels.ClosedByInterruptException}),
+     * и сервер освобождает подключение. Признак прерывания затем снимается, чтобы не влиять на вызывающий поток.
+     *
+     * @param exchange задача сервера JDK, которая читает запрос и вызывает обработчик.
+     */
+    private void drop(Runnable exchange) {
+        rejected.increment();
+        dropped.increment();
+        Thread.currentThread().interrupt();
+        try {
+            exchange.run();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Возвращает порт, на котором сервис принимает подключения.
+     *
+     * @return номер порта.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Возвращает количество успешно обработанных запросов генерации.
+     *
+     * @return количество запросов с ответом {@code 200}.
+     */
+    public long getServedCount() {
+        return served.sum();
+    }
+
+    /**
+     * Возвращает количество запросов генерации, отклонённых из-за ошибок в запросе (ответы 4xx).
+     *
+     * @return количество ошибочных запросов.
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * Возвращает количество запросов, отклонённых из-за перегрузки: с ответом 503 или закрытием подключения.
+     *
+     * @return количество отклонённых запросов.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Возвращает количество подключений, закрытых без ответа, так как заполнена и очередь отклонённых запросов.
+     *
+     * @return количество закрытых подключений.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Возвращает количество отклонённых запросов, ожидающих ответа 503.
+     *
+     * @return размер очереди отклонённых запросов, не больше её ёмкости.
+     */
+    int getPendingRejections() {
+        return rejectionExecutor.getQueue().size();
+    }
+
+    /**
+     * Обрабатывает запрос генерации паролей.
+     *
+     * @param exchange HTTP-обмен.
+     * @throws IOException если не удалось отправить ответ.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendClientError(exchange, 405, "Поддерживается только метод GET.");
+                return;
+            }
+            String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (contentLength != null && !"0".equals(contentLength)) {
+                sendClientError(exchange, 413, "Запрос не должен содержать тело.");
+                return;
+            }
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null && query.length() > MAX_QUERY_LENGTH) {
+                sendClientError(exchange, 414, "Слишком длинная строка запроса.");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            StringBuilder json;
+            try {
+                if ("/generate".equals(path)) {
+                    json = handleSingle(query);
+                } else if ("/generate/batch".equals(path)) {
+                    json = handleBatch(query);
+                } else {
+                    sendClientError(exchange, 404, "Неизвестный путь: " + path);
+                    return;
+                }
+            } catch (PasswordGeneratorException | IllegalArgumentException e) {
+                sendClientError(exchange, 400, e.getMessage());
+                return;
+            }
+            served.increment();
+            send(exchange, 200, json);
+        }
+    }
+
+    /**
+     * Отправляет ответ об ошибке в запросе и учитывает её в счётчике ошибок.
+     *
+     * @param exchange HTTP-обмен.
+     * @param status   код ответа.
+     * @param message  сообщение об ошибке.
+     * @throws IOException если не удалось отправить ответ.
+     */
+    private void sendClientError(HttpExchange exchange, int status, String message) throws IOException {
+        errors.increment();
+        sendError(exchange, status, message);
+    }
+
+    /**
+     * Отправляет метрики приложения в текстовом формате Prometheus.
+     *
+     * @param exchange HTTP-обмен.
+     * @throws IOException если не удалось отправить ответ.
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendClientError(exchange, 405, "Поддерживается только метод GET.");
+                return;
+            }
+            byte[] body = Metrics.get().dumpPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Генерирует один пароль и формирует ответ.
+     *
+     * @param query строка запроса.
+     * @return тело ответа в буфере ответа текущего потока.
+     * @throws PasswordGeneratorException если параметры генерации некорректны.
+     */
+    private StringBuilder handleSingle(String query) throws PasswordGeneratorException {
+        int length = intParameter(query, "length", 12);
+        boolean useUppercase = booleanParameter(query, "uppercase");
+        boolean useDigits = booleanParameter(query, "digits");
+        boolean useSpecialChars = booleanParameter(query, "special");
+        PasswordResult result = passwordPool == null
+                ? generator.generatePassword(length, useUppercase, useDigits, useSpecialChars)
+                : passwordPool.take(length, useUppercase, useDigits, useSpecialChars);
+
+        StringBuilder json = responseBuffer();
+        json.append("{\"password\":");
+        appendJsonString(json, result.getPassword());
+        json.append(",\"generationTime\":").append(result.getGenerationTime()).append('}');
+        return json;
+    }
+
+    /**
+     * Генерирует пакет паролей и формирует ответ.
+     * Общее количество символов в пакете ограничено {@link PasswordGenerator#MAX_LENGTH}.
+     *
+     * @param query строка запроса.
+     * @return тело ответа в буфере ответа текущего потока.
+     * @throws PasswordGeneratorException если параметры генерации некорректны.
+     */
+    private StringBuilder handleBatch(String query) throws PasswordGeneratorException {
+        int count = intParameter(query, "count", 1);
+        int length = intParameter(query, "length", 12);
+        if (count < 1 || count > MAX_BATCH_COUNT) {
+            throw new PasswordGeneratorException("Количество паролей должно быть от 1 до " + MAX_BATCH_COUNT + ".");
+        }
+        if ((long) count * length > PasswordGenerator.MAX_LENGTH) {
+            throw new PasswordGeneratorException("Общая длина паролей в пакете слишком велика.");
+        }
+        BatchResult batch = generator.generatePasswords(count, length, booleanParameter(query, "uppercase"),
+                booleanParameter(query, "digits"), booleanParameter(query, "special"), false);
+
+        StringBuilder json = responseBuffer();
+        json.append("{\"passwords\":[");
+        List<PasswordResult> passwords = batch.getPasswords();
+        for (int i = 0; i < passwords.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendJsonString(json, passwords.get(i).getPassword());
+        }
+        json.append("],\"generationTime\":").append(batch.getGenerationTime()).append('}');
+        return json;
+    }
+
+    /**
+     * Отправляет ответ с сообщением об ошибке.
+     *
+     * @param exchange HTTP-обмен.
+     * @param status   код ответа.
+     * @param message  сообщение об ошибке.
+     * @throws IOException если не удалось отправить ответ.
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = responseBuffer();
+        json.append("{\"error\":");
+        appendJsonString(json, message);
+        json.append('}');
+        send(exchange, status, json);
+    }
+
+    /**
+     * Отправляет JSON-ответ и освобождает буфер, если он слишком вырос.
+     *
+     * @param exchange HTTP-обмен.
+     * @param status   код ответа.
+     * @param json     тело ответа.
+     * @throws IOException если не удалось отправить ответ.
+     */
+    private static void send(HttpExchange exchange, int status, StringBuilder json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        json.setLength(0);
+        if (json.capacity() > RETAINED_BUFFER_SIZE) {
+            json.trimToSize();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Возвращает пустой переиспользуемый буфер ответа текущего потока.
+     *
+     * @return буфер ответа.
+     */
+    private static StringBuilder responseBuffer() {
+        StringBuilder buffer = RESPONSE_BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    /**
+     * Добавляет строку в формате JSON с экранированием специальных символов.
+     *
+     * @param json  буфер ответа.
+     * @param value строка.
+     */
+    static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Возвращает значение параметра строки запроса.
+     *
+     * @param query строка запроса или {@code null}.
+     * @param name  имя параметра.
+     * @return значение параметра или {@code null}, если параметр не указан.
+     */
+    private static String parameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            if (key.equals(name)) {
+                return separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает целочисленный параметр строки запроса.
+     *
+     * @param query        строка запроса.
+     * @param name         имя параметра.
+     * @param defaultValue значение по умолчанию.
+     * @return значение параметра.
+     * @throws IllegalArgumentException если значение не является целым числом.
+     */
+    private static int intParameter(String query, String name, int defaultValue) {
+        String value = parameter(query, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть целым числом.");
+        }
+    }
+
+    /**
+     * Фильтр всех путей сервиса: на запросы, отклонённые из-за переполнения очереди, сразу отвечает 503
+     * с заголовком {@code Retry-After}, не передавая их обработчику.
+     */
+    private final class OverloadFilter extends Filter {
+
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            if (REJECTED.get() == null) {
+                chain.doFilter(exchange);
+                return;
+            }
+            try (exchange) {
+                rejected.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Сервис перегружен, повторите запрос позже.");
+            }
+        }
+
+        @Override
+        public String description() {
+            return "Ответ 503 при перегрузке";
+        }
+    }
+
+    /**
+     * Возвращает логический параметр строки запроса.
+     *
+     * @param query строка запроса.
+     * @param name  имя параметра.
+     * @return {@code true}, если параметр указан без значения или со значением {@code true}.
+     */
+    private static boolean booleanParameter(String query, String name) {
+        String value = parameter(query, name);
+        return value != null && (value.isEmpty() || Boolean.parseBoolean(value));
+    }
+}
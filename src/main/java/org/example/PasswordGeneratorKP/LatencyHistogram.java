@@ -0,0 +1,132 @@
+package org.example.PasswordGeneratorKP;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек с логарифмически-линейными интервалами (по принципу HdrHistogram).
+ * Каждая степень двойки делится на 16 интервалов, поэтому относительная погрешность
+ * значений не превышает 1/16. Запись выполняется без блокировок, чтобы не искажать
+ * измеряемый код.
+ */
+public class LatencyHistogram {
+
+    // Количество интервалов внутри одной степени двойки
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+
+    // Значения меньше 2 * SUB_BUCKETS хранятся точно, далее — по 16 интервалов на степень двойки
+    private static final int BUCKET_COUNT = SUB_BUCKETS * (64 - SUB_BUCKET_BITS) + 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Записывает значение задержки.
+     *
+     * @param nanos задержка в наносекундах; отрицательные значения считаются нулевыми.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Возвращает количество записанных значений.
+     *
+     * @return количество значений.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Возвращает сумму записанных значений.
+     *
+     * @return сумма значений в наносекундах.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Возвращает максимальное записанное значение.
+     *
+     * @return максимальное значение в наносекундах.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Возвращает среднее значение.
+     *
+     * @return среднее значение в наносекундах или 0, если значений нет.
+     */
+    public double getMean() {
+        long total = getCount();
+        return total == 0 ? 0 : (double) getSum() / total;
+    }
+
+    /**
+     * Возвращает оценку перцентиля — верхнюю границу интервала, в который попадает перцентиль.
+     *
+     * @param percentile перцентиль от 0 до 1.
+     * @return значение перцентиля в наносекундах или 0, если значений нет.
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Вычисляет номер интервала для значения.
+     *
+     * @param value неотрицательное значение.
+     * @return номер интервала.
+     */
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Вычисляет наибольшее значение, попадающее в интервал.
+     *
+     * @param index номер интервала.
+     * @return верхняя граница интервала.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index - (long) shift * SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.PasswordGeneratorKP;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Вероятностный индекс существования логинов (фильтр Блума).
+ * Отрицательный ответ {@link #mightContain(String)} точен, поэтому проверку занятости
+ * нового логина можно выполнить без обращения к базе данных.
+ * Положительный ответ может быть ложным с заданной вероятностью и требует проверки в базе данных.
+ * Индекс хранит номер последней учтённой строки таблицы, количество учтённых строк и значение счётчика
+ * удалений логинов, чтобы после загрузки с диска досчитывать только добавленные позже строки и обнаруживать
+ * удаление строк, а также параметры, с которыми он построен, чтобы не использовать индекс,
+ * рассчитанный на другой размер таблицы.
+ */
+public class LoginBloomFilter {
+
+    // Сигнатура файла индекса
+    private static final int MAGIC = 0x4C424632;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private volatile long lastRowId;
+    private volatile long rowCount;
+    private volatile long removedCount;
+
+    /**
+     * Конструктор индекса, рассчитанного на заданное количество логинов.
+     *
+     * @param expectedInsertions ожидаемое количество логинов.
+     * @param falsePositiveRate  допустимая вероятность ложноположительного ответа.
+     */
+    public LoginBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Некорректные параметры индекса логинов.");
+        }
+        long words = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) / 64);
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Индекс логинов слишком велик.");
+        }
+        this.bits = new AtomicLongArray((int) Math.max(1, words));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    private LoginBloomFilter(AtomicLongArray bits, int hashCount, long expectedInsertions, double falsePositiveRate,
+                             long lastRowId, long rowCount, long removedCount) {
+        this.bits = bits;
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = hashCount;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.lastRowId = lastRowId;
+        this.rowCount = rowCount;
+        this.removedCount = removedCount;
+    }
+
+    /**
+     * Проверяет, построен ли индекс с заданными параметрами.
+     *
+     * @param expectedInsertions ожидаемое количество логинов.
+     * @param falsePositiveRate  допустимая вероятность ложноположительного ответа.
+     * @return {@code true}, если параметры совпадают.
+     */
+    boolean hasParameters(long expectedInsertions, double falsePositiveRate) {
+        return this.expectedInsertions == expectedInsertions && Double.compare(this.falsePositiveRate, falsePositiveRate) == 0;
+    }
+
+    /**
+     * Добавляет логин в индекс.
+     *
+     * @param login логин пользователя.
+     */
+    public void add(String login) {
+        long hash = hash(login);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, мог ли логин быть добавлен в индекс.
+     *
+     * @param login логин пользователя.
+     * @return {@code false}, если логина точно нет; {@code true}, если он, возможно, есть.
+     */
+    public boolean mightContain(String login) {
+        long hash = hash(login);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает номер последней учтённой строки таблицы пользователей.
+     *
+     * @return значение rowid последней учтённой строки.
+     */
+    long getLastRowId() {
+        return lastRowId;
+    }
+
+    /**
+     * Запоминает номер последней учтённой строки таблицы пользователей.
+     *
+     * @param lastRowId значение rowid последней учтённой строки.
+     */
+    void setLastRowId(long lastRowId) {
+        this.lastRowId = lastRowId;
+    }
+
+    /**
+     * Возвращает количество строк таблицы пользователей, учтённых в индексе.
+     *
+     * @return количество строк.
+     */
+    long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Запоминает количество строк таблицы пользователей, учтённых в индексе.
+     *
+     * @param rowCount количество строк.
+     */
+    void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Возвращает значение счётчика удалений и переименований логинов, на момент которого построен индекс.
+     *
+     * @return значение счётчика.
+     */
+    long getRemovedCount() {
+        return removedCount;
+    }
+
+    /**
+     * Запоминает значение счётчика удалений и переименований логинов.
+     *
+     * @param removedCount значение счётчика.
+     */
+    void setRemovedCount(long removedCount) {
+        this.removedCount = removedCount;
+    }
+
+    /**
+     * Сохраняет индекс в файл.
+     *
+     * @param file путь к файлу индекса.
+     * @throws IOException если произошла ошибка записи.
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(bits.length());
+            out.writeInt(hashCount);
+            out.writeLong(expectedInsertions);
+            out.writeDouble(falsePositiveRate);
+            out.writeLong(lastRowId);
+            out.writeLong(rowCount);
+            out.writeLong(removedCount);
+            for (int i = 0; i < bits.length(); i++) {
+                out.writeLong(bits.get(i));
+            }
+        }
+    }
+
+    /**
+     * Загружает индекс из файла.
+     *
+     * @param file путь к файлу индекса.
+     * @return загруженный индекс.
+     * @throws IOException если файл не удалось прочитать или он повреждён.
+     */
+    public static LoginBloomFilter load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Файл не является индексом логинов: " + file);
+            }
+            int words = in.readInt();
+            int hashCount = in.readInt();
+            long expectedInsertions = in.readLong();
+            double falsePositiveRate = in.readDouble();
+            if (words < 1 || hashCount < 1 || expectedInsertions < 1) {
+                throw new IOException("Индекс логинов повреждён: " + file);
+            }
+            long lastRowId = in.readLong();
+            long rowCount = in.readLong();
+            long removedCount = in.readLong();
+            AtomicLongArray bits = new AtomicLongArray(words);
+            for (int i = 0; i < words; i++) {
+                bits.set(i, in.readLong());
+            }
+            return new LoginBloomFilter(bits, hashCount, expectedInsertions, falsePositiveRate, lastRowId, rowCount, removedCount);
+        }
+    }
+
+    /**
+     * Вычисляет 64-битный хеш логина (FNV-1a с финальным перемешиванием).
+     *
+     * @param login логин пользователя.
+     * @return хеш логина.
+     */
+    private static long hash(String login) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < login.length(); i++) {
+            hash ^= login.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
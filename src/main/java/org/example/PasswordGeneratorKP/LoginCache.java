@@ -0,0 +1,153 @@
+package org.example.PasswordGeneratorKP;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченный кэш результатов поиска пароля по логину.
+ * Хранит как найденные пароли, так и отсутствие логина в базе данных,
+ * вытесняет давно не использованные записи при превышении размера
+ * и записи, срок жизни которых истёк.
+ */
+public class LoginCache {
+
+    /**
+     * Запись кэша: пароль или {@code null}, если логина нет в базе данных.
+     */
+    static final class Entry {
+
+        private final String password;
+        private final long expiresAt;
+
+        Entry(String password, long expiresAt) {
+            this.password = password;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Возвращает закэшированный пароль.
+         *
+         * @return пароль или {@code null}, если логина нет в базе данных.
+         */
+        String password() {
+            return password;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Счётчики для подбора размера кэша
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Конструктор кэша.
+     *
+     * @param maxSize    максимальное количество записей.
+     * @param ttlMillis  время жизни записи в миллисекундах или 0, если записи не устаревают.
+     */
+    public LoginCache(int maxSize, long ttlMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Размер кэша должен быть не менее 1.");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > LoginCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Возвращает запись кэша для логина.
+     *
+     * @param login логин пользователя.
+     * @return запись кэша или {@code null}, если логин не закэширован.
+     */
+    synchronized Entry get(String login) {
+        Entry entry = entries.get(login);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.expiresAt > 0) {
+            entries.remove(login);
+            evictions.increment();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Сохраняет результат поиска пароля по логину.
+     *
+     * @param login    логин пользователя.
+     * @param password пароль или {@code null}, если логина нет в базе данных.
+     */
+    synchronized void put(String login, String password) {
+        entries.put(login, new Entry(password, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Удаляет запись для логина.
+     *
+     * @param login логин пользователя.
+     */
+    public synchronized void invalidate(String login) {
+        entries.remove(login);
+    }
+
+    /**
+     * Удаляет все записи кэша.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Возвращает текущее количество записей.
+     *
+     * @return количество записей.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Возвращает количество попаданий в кэш.
+     *
+     * @return количество попаданий.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает количество промахов кэша.
+     *
+     * @return количество промахов.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Возвращает количество записей, вытесненных по размеру или по времени жизни.
+     *
+     * @return количество вытесненных записей.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
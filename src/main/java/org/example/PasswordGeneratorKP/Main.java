@@ -1,7 +1,10 @@
 package org.example.PasswordGeneratorKP;
 
 /**
- * Главный класс приложения, запускающий графический интерфейс.
+ * Главный класс приложения, запускающий графический интерфейс
+ * или консольный режим, если первым аргументом указана команда консольного режима
+ * ({@value CLI#COMMAND_GENERATE}, {@value CLI#COMMAND_SERVE}, {@value CLI#COMMAND_LOAD_TEST},
+ * {@value CLI#COMMAND_EXPORT}, {@value CLI#COMMAND_IMPORT}, {@value CLI#COMMAND_RESHARD}, {@value CLI#COMMAND_AUDIT}).
  */
 public class Main {
 
@@ -11,8 +14,12 @@ public class Main {
      * @param args аргументы командной строки.
      */
     public static void main(String[] args) {
+        // Консольный режим не загружает классы JavaFX
+        if (args.length > 0 && CLI.isCommand(args[0])) {
+            System.exit(CLI.run(args));
+        }
+
         // Запуск основного графического интерфейса приложения
         GUI.main(args);
     }
 }
-
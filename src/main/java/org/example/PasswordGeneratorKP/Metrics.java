@@ -0,0 +1,318 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Реестр метрик приложения: гистограммы времени генерации паролей по интервалам длины,
+ * времени запросов и добавлений в базу данных, доля попаданий в кэш логинов и состояние пула паролей.
+ * <p>
+ * Метрики доступны через JMX ({@link #registerMBean()}) и в текстовом формате Prometheus
+ * ({@link #dumpPrometheus()}). Запись выполняется без блокировок.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    private static final Logger logger = LogManager.getLogger(Metrics.class);
+
+    /**
+     * Имя объекта JMX, под которым регистрируются метрики.
+     */
+    public static final String OBJECT_NAME = "org.example.PasswordGeneratorKP:type=Metrics";
+
+    // Верхние границы интервалов длины пароля
+    private static final long[] LENGTH_BOUNDS = {16, 64, 256, 4096, 65536, 1048576, Long.MAX_VALUE};
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final LatencyHistogram[] generation = new LatencyHistogram[LENGTH_BOUNDS.length];
+    private final LatencyHistogram dbLookup = new LatencyHistogram();
+    private final LatencyHistogram dbInsert = new LatencyHistogram();
+
+    // Кэш логинов, статистика которого публикуется
+    private volatile LoginCache loginCache;
+
+    // Пул паролей, статистика которого публикуется
+    private volatile PasswordPool passwordPool;
+
+    private Metrics() {
+        for (int i = 0; i < generation.length; i++) {
+            generation[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Возвращает общий реестр метрик.
+     *
+     * @return реестр метрик.
+     */
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Регистрирует метрики на платформенном сервере MBean. Повторная регистрация игнорируется.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                logger.info("Метрики зарегистрированы в JMX: {}", OBJECT_NAME);
+            }
+        } catch (JMException e) {
+            logger.error("Не удалось зарегистрировать метрики в JMX: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Записывает время генерации пароля.
+     *
+     * @param length длина пароля.
+     * @param nanos  время генерации в наносекундах.
+     */
+    public void recordGeneration(long length, long nanos) {
+        generation[lengthBucket(length)].record(nanos);
+    }
+
+    /**
+     * Записывает время запроса пароля по логину к базе данных.
+     *
+     * @param nanos время запроса в наносекундах.
+     */
+    public void recordDbLookup(long nanos) {
+        dbLookup.record(nanos);
+    }
+
+    /**
+     * Записывает время добавления пароля в базу данных.
+     *
+     * @param nanos время добавления в наносекундах.
+     */
+    public void recordDbInsert(long nanos) {
+        dbInsert.record(nanos);
+    }
+
+    /**
+     * Подключает кэш логинов, статистика которого публикуется в метриках.
+     *
+     * @param loginCache кэш логинов или {@code null}.
+     */
+    public void setLoginCache(LoginCache loginCache) {
+        this.loginCache = loginCache;
+    }
+
+    /**
+     * Подключает пул паролей, статистика которого публикуется в метриках.
+     *
+     * @param passwordPool пул паролей или {@code null}.
+     */
+    public void setPasswordPool(PasswordPool passwordPool) {
+        this.passwordPool = passwordPool;
+    }
+
+    /**
+     * Возвращает гистограмму времени генерации для интервала длины, содержащего указанную длину.
+     *
+     * @param length длина пароля.
+     * @return гистограмма времени генерации.
+     */
+    public LatencyHistogram getGenerationHistogram(long length) {
+        return generation[lengthBucket(length)];
+    }
+
+    /**
+     * Возвращает гистограмму времени запросов к базе данных.
+     *
+     * @return гистограмма времени запросов.
+     */
+    public LatencyHistogram getDbLookupHistogram() {
+        return dbLookup;
+    }
+
+    /**
+     * Возвращает гистограмму времени добавлений в базу данных.
+     *
+     * @return гистограмма времени добавлений.
+     */
+    public LatencyHistogram getDbInsertHistogram() {
+        return dbInsert;
+    }
+
+    @Override
+    public Map<String, Long> getGenerationCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < generation.length; i++) {
+            counts.put(lengthLabel(i), generation[i].getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getGenerationP99Nanos() {
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        for (int i = 0; i < generation.length; i++) {
+            percentiles.put(lengthLabel(i), generation[i].getPercentile(0.99));
+        }
+        return percentiles;
+    }
+
+    @Override
+    public long getDbLookupCount() {
+        return dbLookup.getCount();
+    }
+
+    @Override
+    public long getDbLookupP50Nanos() {
+        return dbLookup.getPercentile(0.5);
+    }
+
+    @Override
+    public long getDbLookupP99Nanos() {
+        return dbLookup.getPercentile(0.99);
+    }
+
+    @Override
+    public long getDbInsertCount() {
+        return dbInsert.getCount();
+    }
+
+    @Override
+    public long getDbInsertP50Nanos() {
+        return dbInsert.getPercentile(0.5);
+    }
+
+    @Override
+    public long getDbInsertP99Nanos() {
+        return dbInsert.getPercentile(0.99);
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        LoginCache cache = loginCache;
+        if (cache == null) {
+            return 0;
+        }
+        long hits = cache.getHits();
+        long total = hits + cache.getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getPoolDepth() {
+        PasswordPool pool = passwordPool;
+        return pool == null ? 0 : pool.getDepth();
+    }
+
+    @Override
+    public double getPoolHitRatio() {
+        PasswordPool pool = passwordPool;
+        if (pool == null) {
+            return 0;
+        }
+        long hits = pool.getHits();
+        long total = hits + pool.getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public double getPoolRefillRate() {
+        PasswordPool pool = passwordPool;
+        return pool == null ? 0 : pool.getRefillRate();
+    }
+
+    @Override
+    public String dumpPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# HELP password_generation_seconds Время генерации пароля по интервалам длины.\n");
+        out.append("# TYPE password_generation_seconds summary\n");
+        for (int i = 0; i < generation.length; i++) {
+            appendSummary(out, "password_generation_seconds", "length_le=\"" + lengthLabel(i) + "\"", generation[i]);
+        }
+        out.append("# HELP password_db_lookup_seconds Время запроса пароля по логину.\n");
+        out.append("# TYPE password_db_lookup_seconds summary\n");
+        appendSummary(out, "password_db_lookup_seconds", null, dbLookup);
+        out.append("# HELP password_db_insert_seconds Время добавления пароля в базу данных.\n");
+        out.append("# TYPE password_db_insert_seconds summary\n");
+        appendSummary(out, "password_db_insert_seconds", null, dbInsert);
+
+        LoginCache cache = loginCache;
+        if (cache != null) {
+            out.append("# TYPE password_login_cache_hits_total counter\n");
+            out.append("password_login_cache_hits_total ").append(cache.getHits()).append('\n');
+            out.append("# TYPE password_login_cache_misses_total counter\n");
+            out.append("password_login_cache_misses_total ").append(cache.getMisses()).append('\n');
+            out.append("# TYPE password_login_cache_evictions_total counter\n");
+            out.append("password_login_cache_evictions_total ").append(cache.getEvictions()).append('\n');
+            out.append("# TYPE password_login_cache_hit_ratio gauge\n");
+            out.append("password_login_cache_hit_ratio ").append(Double.toString(getCacheHitRatio())).append('\n');
+        }
+
+        PasswordPool pool = passwordPool;
+        if (pool != null) {
+            out.append("# TYPE password_pool_depth gauge\n");
+            out.append("password_pool_depth ").append(pool.getDepth()).append('\n');
+            out.append("# TYPE password_pool_hits_total counter\n");
+            out.append("password_pool_hits_total ").append(pool.getHits()).append('\n');
+            out.append("# TYPE password_pool_misses_total counter\n");
+            out.append("password_pool_misses_total ").append(pool.getMisses()).append('\n');
+            out.append("# TYPE password_pool_refilled_total counter\n");
+            out.append("password_pool_refilled_total ").append(pool.getRefilled()).append('\n');
+            out.append("# TYPE password_pool_refill_rate gauge\n");
+            out.append("password_pool_refill_rate ").append(Double.toString(pool.getRefillRate())).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Добавляет гистограмму в формате сводки Prometheus.
+     *
+     * @param out       буфер вывода.
+     * @param name      имя метрики.
+     * @param labels    метки без фигурных скобок или {@code null}.
+     * @param histogram гистограмма.
+     */
+    private static void appendSummary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels == null ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            out.append(name).append('{').append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(Double.toString(histogram.getPercentile(quantile) / 1e9)).append('\n');
+        }
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(suffix).append(' ').append(Double.toString(histogram.getSum() / 1e9)).append('\n');
+        out.append(name).append("_count").append(suffix).append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    /**
+     * Возвращает номер интервала длины пароля.
+     *
+     * @param length длина пароля.
+     * @return номер интервала.
+     */
+    private static int lengthBucket(long length) {
+        int i = 0;
+        while (length > LENGTH_BOUNDS[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Возвращает метку интервала длины пароля.
+     *
+     * @param bucket номер интервала.
+     * @return верхняя граница интервала или {@code +Inf}.
+     */
+    private static String lengthLabel(int bucket) {
+        return LENGTH_BOUNDS[bucket] == Long.MAX_VALUE ? "+Inf" : Long.toString(LENGTH_BOUNDS[bucket]);
+    }
+}
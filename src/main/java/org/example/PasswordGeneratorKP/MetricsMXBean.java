@@ -0,0 +1,101 @@
+package org.example.PasswordGeneratorKP;
+
+import java.util.Map;
+
+/**
+ * Интерфейс управления JMX для метрик приложения.
+ * Время возвращается в наносекундах.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Возвращает количество сгенерированных паролей по интервалам длины.
+     *
+     * @return количество паролей по верхней границе интервала длины.
+     */
+    Map<String, Long> getGenerationCounts();
+
+    /**
+     * Возвращает 99-й перцентиль времени генерации по интервалам длины.
+     *
+     * @return перцентиль по верхней границе интервала длины.
+     */
+    Map<String, Long> getGenerationP99Nanos();
+
+    /**
+     * Возвращает количество запросов пароля по логину к базе данных.
+     *
+     * @return количество запросов.
+     */
+    long getDbLookupCount();
+
+    /**
+     * Возвращает медиану времени запроса пароля по логину.
+     *
+     * @return медиана времени запроса.
+     */
+    long getDbLookupP50Nanos();
+
+    /**
+     * Возвращает 99-й перцентиль времени запроса пароля по логину.
+     *
+     * @return 99-й перцентиль времени запроса.
+     */
+    long getDbLookupP99Nanos();
+
+    /**
+     * Возвращает количество добавлений пароля в базу данных.
+     *
+     * @return количество добавлений.
+     */
+    long getDbInsertCount();
+
+    /**
+     * Возвращает медиану времени добавления пароля.
+     *
+     * @return медиана времени добавления.
+     */
+    long getDbInsertP50Nanos();
+
+    /**
+     * Возвращает 99-й перцентиль времени добавления пароля.
+     *
+     * @return 99-й перцентиль времени добавления.
+     */
+    long getDbInsertP99Nanos();
+
+    /**
+     * Возвращает долю попаданий в кэш логинов.
+     *
+     * @return доля попаданий от 0 до 1 или 0, если кэш не подключён.
+     */
+    double getCacheHitRatio();
+
+    /**
+     * Возвращает общее количество готовых паролей в пуле.
+     *
+     * @return количество паролей или 0, если пул не подключён.
+     */
+    long getPoolDepth();
+
+    /**
+     * Возвращает долю паролей, выданных из пула без генерации.
+     *
+     * @return доля попаданий от 0 до 1 или 0, если пул не подключён.
+     */
+    double getPoolHitRatio();
+
+    /**
+     * Возвращает скорость фонового пополнения пула.
+     *
+     * @return количество паролей в секунду или 0, если пул не подключён.
+     */
+    double getPoolRefillRate();
+
+    /**
+     * Возвращает все метрики в текстовом формате Prometheus.
+     *
+     * @return текст метрик.
+     */
+    String dumpPrometheus();
+}
@@ -3,26 +3,63 @@ package org.example.PasswordGeneratorKP;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 /**
  * Класс для генерации паролей.
+ * Не зависит от базы данных: хранение паролей выполняет отдельный {@link DatabaseManager}.
  */
-public class PasswordGenerator extends DatabaseManager {
+public class PasswordGenerator {
 
     private static final Logger logger = LogManager.getLogger(PasswordGenerator.class);
 
-    // Наборы символов для генерации паролей
-    private static final String LOWERCASE = "abcdefghijklmnopqrstuvwxyzйцукеннгшщзхъёфывапролджэячсмитьбю";
-    private static final String UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZЙЦУКЕННГШЩЗХЪЁФЫВАПРОЛДЖЭЯЧСМТЬБЮ";
-    private static final String DIGITS = "0123456789";
-    private static final String SPECIAL_CHARS = "!@#$%^&*()-_=+<>?";
+    /**
+     * Максимально допустимая длина пароля, генерируемого в памяти.
+     */
+    public static final int MAX_LENGTH = 10000000;
+
+    // Размер фрагмента при потоковой генерации пароля
+    private static final int STREAM_CHUNK_SIZE = 8192;
+
+    // Выборка случайных индексов текущего потока, связанная с его генератором
+    private static final ThreadLocal<RandomSampler> SAMPLERS = new ThreadLocal<>();
+
+    // Источник случайных чисел, общий для генерации и перемешивания
+    private final RandomSource randomSource;
+
+    /**
+     * Конструктор генератора с общим пулом {@link SecureRandom} по одному экземпляру на поток.
+     */
+    public PasswordGenerator() {
+        this(SecureRandomPool.shared());
+    }
 
-    // Генератор случайных чисел
-    private SecureRandom random = new SecureRandom();
+    /**
+     * Конструктор генератора с указанным источником случайных чисел.
+     *
+     * @param randomSource источник случайных чисел.
+     */
+    public PasswordGenerator(RandomSource randomSource) {
+        this.randomSource = randomSource;
+    }
 
     /**
      * Генерирует случайный пароль заданной длины с учетом указанных параметров.
@@ -32,64 +69,538 @@ public class PasswordGenerator extends DatabaseManager {
      * @param useDigits       использовать ли цифры.
      * @param useSpecialChars использовать ли специальные символы.
      * @return объект {@link PasswordResult}, содержащий сгенерированный пароль и время генерации.
-     * @throws PasswordGeneratorException если длина пароля меньше 1.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
      */
     public PasswordResult generatePassword(int length, boolean useUppercase, boolean useDigits, boolean useSpecialChars) throws PasswordGeneratorException {
-        long startTime = System.nanoTime();
         logger.info("Генерация пароля длиной: {}, верхний регистр: {}, цифры: {}, специальные символы: {}", length, useUppercase, useDigits, useSpecialChars);
+        return generate(length, table(useUppercase, useDigits, useSpecialChars));
+    }
+
+    /**
+     * Генерирует случайный пароль заданной длины по политике генерации.
+     *
+     * @param length длина пароля.
+     * @param policy политика генерации.
+     * @return объект {@link PasswordResult}, содержащий сгенерированный пароль и время генерации.
+     * @throws PasswordGeneratorException если длина пароля некорректна или меньше минимальной длины политики.
+     */
+    public PasswordResult generatePassword(int length, PasswordPolicy policy) throws PasswordGeneratorException {
+        logger.info("Генерация пароля длиной: {}, политика: {}", length, policy);
+        return generate(length, policy.table());
+    }
+
+    /**
+     * Генерирует пароль по таблице символов и измеряет время генерации.
+     *
+     * @param length длина пароля.
+     * @param table  таблица символов.
+     * @return объект {@link PasswordResult}, содержащий сгенерированный пароль и время генерации.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     */
+    private PasswordResult generate(int length, CharsetTable table) throws PasswordGeneratorException {
+        long startTime = System.nanoTime();
+
+        validateLength(length, table);
+        char[] password = new char[length];
+        fill(password, length, table, randomSource.current());
+        String randomizedPassword = new String(password);
+        long endTime = System.nanoTime();
+        long generationTime = endTime - startTime;
+        Metrics.get().recordGeneration(length, generationTime);
+
+        logger.info("Пароль сгенерирован за {} наносекунд: {}", generationTime, SecretRedactor.redact(randomizedPassword));
+        return new PasswordResult(randomizedPassword, generationTime);
+    }
+
+    /**
+     * Генерирует случайный пароль заданной длины и возвращает его в виде массива символов.
+     * В отличие от {@link #generatePassword(int, boolean, boolean, boolean)} не создаёт строку,
+     * поэтому вызывающий код может затереть пароль в памяти после использования.
+     *
+     * @param length          длина пароля.
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @return массив символов сгенерированного пароля.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     */
+    public char[] generatePasswordChars(int length, boolean useUppercase, boolean useDigits, boolean useSpecialChars) throws PasswordGeneratorException {
+        CharsetTable table = table(useUppercase, useDigits, useSpecialChars);
+        validateLength(length, table);
+        char[] password = new char[length];
+        fill(password, length, table, randomSource.current());
+        return password;
+    }
+
+    /**
+     * Заполняет первые {@code length} элементов переданного массива случайным паролем.
+     * Позволяет переиспользовать один буфер для генерации множества паролей без выделения памяти.
+     *
+     * @param buffer          буфер, в который записывается пароль.
+     * @param length          длина пароля.
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @throws PasswordGeneratorException если длина пароля некорректна или превышает размер буфера.
+     */
+    public void fillPassword(char[] buffer, int length, boolean useUppercase, boolean useDigits, boolean useSpecialChars) throws PasswordGeneratorException {
+        CharsetTable table = table(useUppercase, useDigits, useSpecialChars);
+        validateLength(length, table);
+        if (length > buffer.length) {
+            throw new PasswordGeneratorException("Длина пароля превышает размер буфера.");
+        }
+        fill(buffer, length, table, randomSource.current());
+    }
+
+    /**
+     * Генерирует пакет случайных паролей с одинаковыми параметрами.
+     * В параллельном режиме работа делится между потоками общего {@link ForkJoinPool},
+     * и каждый поток берёт собственный генератор из {@link RandomSource},
+     * чтобы потоки не конкурировали за один генератор случайных чисел.
+     *
+     * @param count           количество паролей.
+     * @param length          длина каждого пароля.
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @param parallel        генерировать ли пароли параллельно.
+     * @return объект {@link BatchResult}, содержащий пароли, общее время и время генерации каждого пароля.
+     * @throws PasswordGeneratorException если количество паролей отрицательно или длина пароля некорректна.
+     */
+    public BatchResult generatePasswords(int count, int length, boolean useUppercase, boolean useDigits,
+                                         boolean useSpecialChars, boolean parallel) throws PasswordGeneratorException {
+        return generatePasswords(count, length, PasswordPolicy.of(useUppercase, useDigits, useSpecialChars), parallel);
+    }
+
+    /**
+     * Генерирует пакет случайных паролей по политике генерации.
+     *
+     * @param count    количество паролей.
+     * @param length   длина каждого пароля.
+     * @param policy   политика генерации.
+     * @param parallel генерировать ли пароли параллельно.
+     * @return объект {@link BatchResult}, содержащий пароли, общее время и время генерации каждого пароля.
+     * @throws PasswordGeneratorException если количество паролей отрицательно или длина пароля некорректна.
+     */
+    public BatchResult generatePasswords(int count, int length, PasswordPolicy policy, boolean parallel) throws PasswordGeneratorException {
+        logger.info("Пакетная генерация {} паролей длиной: {}, параллельно: {}", count, length, parallel);
+        long startTime = System.nanoTime();
+
+        if (count < 0) {
+            logger.error("Количество паролей не может быть отрицательным.");
+            throw new PasswordGeneratorException("Количество паролей не может быть отрицательным.");
+        }
+        CharsetTable table = policy.table();
+        validateLength(length, table);
+
+        PasswordResult[] results = new PasswordResult[count];
+        if (parallel) {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            int threshold = Math.max(64, count / (pool.getParallelism() * 4));
+            pool.invoke(new BatchTask(results, 0, count, length, table, randomSource, threshold));
+        } else {
+            generateRange(results, 0, count, length, table, randomSource);
+        }
+
+        long generationTime = System.nanoTime() - startTime;
+        logger.info("Пакет из {} паролей сгенерирован за {} наносекунд", count, generationTime);
+        return new BatchResult(Collections.unmodifiableList(Arrays.asList(results)), generationTime);
+    }
+
+    /**
+     * Генерирует пакет паролей, не совпадающих друг с другом и с паролями, уже добавленными в множество.
+     *
+     * @param count  количество паролей.
+     * @param issued множество выданных паролей; сгенерированные пароли добавляются в него.
+     * @return объект {@link BatchResult}, содержащий пароли, общее время и время генерации каждого пароля.
+     * @throws PasswordGeneratorException если параметры некорректны или у политики недостаточно различных паролей.
+     */
+    public BatchResult generateUniquePasswords(int count, UniquePasswordSet issued) throws PasswordGeneratorException {
+        List<PasswordResult> results = new ArrayList<>(Math.max(0, count));
+        long[] lastTime = {System.nanoTime()};
+        Result result = generateUniquePasswords(count, issued, password -> {
+            long now = System.nanoTime();
+            results.add(new PasswordResult(password, now - lastTime[0]));
+            lastTime[0] = now;
+        });
+        return new BatchResult(Collections.unmodifiableList(results), result.getGenerationTime());
+    }
+
+    /**
+     * Генерирует указанное количество паролей, не совпадающих друг с другом и с паролями,
+     * уже добавленными в множество, и передаёт их получателю по одному.
+     * Пароль, уже бывший в множестве, отбрасывается и генерируется заново, поэтому распределение
+     * выданных паролей остаётся равномерным среди ещё не выданных.
+     *
+     * @param count    количество паролей.
+     * @param issued   множество выданных паролей; сгенерированные пароли добавляются в него.
+     * @param consumer получатель паролей.
+     * @return объект {@link Result} с общим временем генерации.
+     * @throws PasswordGeneratorException если параметры некорректны или у политики недостаточно различных паролей.
+     */
+    public Result generateUniquePasswords(long count, UniquePasswordSet issued, Consumer<String> consumer) throws PasswordGeneratorException {
+        logger.info("Генерация {} уникальных паролей длиной: {}, уже выдано: {}", count, issued.getLength(), issued.size());
+        long startTime = System.nanoTime();
+
+        if (count < 0) {
+            throw new PasswordGeneratorException("Количество паролей не может быть отрицательным.");
+        }
+        CharsetTable table = issued.getPolicy().table();
+        int length = issued.getLength();
+        validateLength(length, table);
+        checkKeyspace(count, issued);
+        long available = issued.getKeyspace() - issued.size();
+        if (count > available / 2) {
+            logger.warn("Запрошено более половины оставшихся паролей ({} из {}), генерация замедлится из-за повторов",
+                    count, available);
+        }
+
+        char[] buffer = new char[length];
+        long repeats = 0;
+        for (long produced = 0; produced < count; ) {
+            fill(buffer, length, table, randomSource.current());
+            if (issued.add(buffer)) {
+                consumer.accept(new String(buffer));
+                produced++;
+            } else {
+                repeats++;
+            }
+        }
+        Arrays.fill(buffer, '\0');
+
+        long generationTime = System.nanoTime() - startTime;
+        logger.info("{} уникальных паролей сгенерировано за {} наносекунд, отброшено повторов: {}, память множества: {} байт",
+                count, generationTime, repeats, issued.getMemoryBytes());
+        return new Result(generationTime);
+    }
+
+    /**
+     * Проверяет, что у политики достаточно ещё не выданных паролей.
+     *
+     * @param count  количество запрашиваемых паролей.
+     * @param issued множество выданных паролей.
+     * @throws PasswordGeneratorException если различных паролей недостаточно.
+     */
+    static void checkKeyspace(long count, UniquePasswordSet issued) throws PasswordGeneratorException {
+        long available = issued.getKeyspace() - issued.size();
+        if (count > available) {
+            logger.error("Недостаточно различных паролей: доступно {}, запрошено {}", available, count);
+            throw new PasswordGeneratorException("Политика допускает только " + issued.getKeyspace()
+                    + " различных паролей длиной " + issued.getLength() + ", уже выдано " + issued.size()
+                    + ", запрошено ещё " + count + ".");
+        }
+    }
+
+    /**
+     * Генерирует пароль заданной длины и записывает его в {@link Writer} фрагментами фиксированного размера.
+     * Пароль целиком в памяти не хранится, поэтому объём используемой памяти не зависит от длины,
+     * а длина не ограничена максимумом {@link #generatePassword(int, boolean, boolean, boolean)}.
+     * Сам пароль в журнал не записывается.
+     *
+     * @param out             поток, в который записывается пароль.
+     * @param length          длина пароля.
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @return объект {@link Result} со временем генерации и записи пароля.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     * @throws IOException                если произошла ошибка записи.
+     */
+    public Result writePassword(Writer out, long length, boolean useUppercase, boolean useDigits,
+                                boolean useSpecialChars) throws PasswordGeneratorException, IOException {
+        return stream(length, table(useUppercase, useDigits, useSpecialChars), (chunk, count) -> out.write(chunk, 0, count));
+    }
+
+    /**
+     * Генерирует пароль заданной длины и записывает его в канал в кодировке UTF-8
+     * фрагментами фиксированного размера, не храня пароль целиком в памяти.
+     *
+     * @param channel         канал, в который записывается пароль.
+     * @param length          длина пароля.
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @return объект {@link Result} со временем генерации и записи пароля.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     * @throws IOException                если произошла ошибка записи.
+     */
+    public Result writePassword(WritableByteChannel channel, long length, boolean useUppercase, boolean useDigits,
+                                boolean useSpecialChars) throws PasswordGeneratorException, IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer bytes = ByteBuffer.allocate((int) Math.ceil(encoder.maxBytesPerChar() * STREAM_CHUNK_SIZE));
+        return stream(length, table(useUppercase, useDigits, useSpecialChars), (chunk, count) -> {
+            bytes.clear();
+            encoder.encode(CharBuffer.wrap(chunk, 0, count), bytes, false);
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        });
+    }
+
+    /**
+     * Генерирует пароль заданной длины и записывает его в файл в кодировке UTF-8.
+     * Существующий файл перезаписывается.
+     *
+     * @param file            путь к файлу.
+     * @param length          длина пароля.
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @return объект {@link Result} со временем генерации и записи пароля.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     * @throws IOException                если произошла ошибка записи.
+     */
+    public Result writePassword(Path file, long length, boolean useUppercase, boolean useDigits,
+                                boolean useSpecialChars) throws PasswordGeneratorException, IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return writePassword(channel, length, useUppercase, useDigits, useSpecialChars);
+        }
+    }
+
+    /**
+     * Генерирует пароль фрагментами и передаёт каждый фрагмент получателю.
+     * Позиции обязательных символов выбираются заранее равномерно среди всех позиций пароля,
+     * остальные позиции заполняются из общего набора. Такое распределение совпадает с распределением
+     * пароля, сгенерированного целиком и перемешанного, но требует памяти только на один фрагмент.
+     *
+     * @param length длина пароля.
+     * @param table  таблица символов.
+     * @param sink   получатель фрагментов.
+     * @return объект {@link Result} со временем генерации и записи пароля.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     * @throws IOException                если получатель не смог записать фрагмент.
+     */
+    private Result stream(long length, CharsetTable table, ChunkSink sink) throws PasswordGeneratorException, IOException {
+        logger.info("Потоковая генерация пароля длиной: {}", length);
+        long startTime = System.nanoTime();
 
         if (length < 1) {
             logger.error("Длина пароля должна быть не менее 1.");
             throw new PasswordGeneratorException("Длина пароля должна быть не менее 1.");
         }
-        if (length > 10000000) {
-            throw new PasswordGeneratorException("Длина пароля слишком велика.");
+        if (length < table.minLength()) {
+            throw new PasswordGeneratorException("Длина пароля должна быть не менее " + table.minLength() + ".");
         }
 
-        StringBuilder password = new StringBuilder();
-        StringBuilder charset = new StringBuilder(LOWERCASE);
+        // Выбор различных позиций для обязательных символов
+        SecureRandom random = randomSource.current();
+        char[][] required = table.required();
+        long[] positions = new long[required.length];
+        for (int i = 0; i < positions.length; i++) {
+            long position;
+            do {
+                position = random.nextLong(length);
+            } while (contains(positions, i, position));
+            positions[i] = position;
+        }
 
-        // Добавление обязательных символов для указанных наборов
-        if (useUppercase) {
-            password.append(UPPERCASE.charAt(random.nextInt(UPPERCASE.length())));
-            charset.append(UPPERCASE);
+        char[] charset = table.charset();
+        char[] chunk = new char[(int) Math.min(STREAM_CHUNK_SIZE, length)];
+        RandomSampler sampler = sampler(random);
+        for (long offset = 0; offset < length; offset += chunk.length) {
+            int count = (int) Math.min(chunk.length, length - offset);
+            sampler.fill(chunk, 0, count, charset);
+            for (int i = 0; i < positions.length; i++) {
+                if (positions[i] >= offset && positions[i] < offset + count) {
+                    chunk[(int) (positions[i] - offset)] = required[i][sampler.nextInt(required[i].length)];
+                }
+            }
+            sampler.wipe();
+            sink.accept(chunk, count);
         }
-        if (useDigits) {
-            password.append(DIGITS.charAt(random.nextInt(DIGITS.length())));
-            charset.append(DIGITS);
+        Arrays.fill(chunk, '\0');
+
+        long generationTime = System.nanoTime() - startTime;
+        Metrics.get().recordGeneration(length, generationTime);
+        logger.info("Пароль длиной {} сгенерирован и записан за {} наносекунд", length, generationTime);
+        return new Result(generationTime);
+    }
+
+    /**
+     * Проверяет, встречается ли значение среди первых {@code count} элементов массива.
+     *
+     * @param values массив значений.
+     * @param count  количество проверяемых элементов.
+     * @param value  искомое значение.
+     * @return {@code true}, если значение найдено.
+     */
+    private static boolean contains(long[] values, int count, long value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
         }
-        if (useSpecialChars) {
-            password.append(SPECIAL_CHARS.charAt(random.nextInt(SPECIAL_CHARS.length())));
-            charset.append(SPECIAL_CHARS);
+        return false;
+    }
+
+    /**
+     * Генерирует пароли для диапазона элементов массива результатов, переиспользуя один буфер.
+     *
+     * @param results массив результатов.
+     * @param from    начальный индекс (включительно).
+     * @param to      конечный индекс (не включительно).
+     * @param length  длина каждого пароля.
+     * @param table   таблица символов.
+     * @param randomSource источник случайных чисел.
+     */
+    private static void generateRange(PasswordResult[] results, int from, int to, int length,
+                                      CharsetTable table, RandomSource randomSource) {
+        char[] buffer = new char[length];
+        LatencyHistogram histogram = Metrics.get().getGenerationHistogram(length);
+        for (int i = from; i < to; i++) {
+            long startTime = System.nanoTime();
+            fill(buffer, length, table, randomSource.current());
+            String password = new String(buffer);
+            long generationTime = System.nanoTime() - startTime;
+            histogram.record(generationTime);
+            results[i] = new PasswordResult(password, generationTime);
         }
+        Arrays.fill(buffer, '\0');
+    }
 
-        // Заполнение оставшихся символов
-        for (int i = password.length(); i < length; i++) {
-            password.append(charset.charAt(random.nextInt(charset.length())));
+    /**
+     * Возвращает скомпилированную таблицу символов политики, соответствующей указанным параметрам.
+     *
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @return таблица символов.
+     */
+    static CharsetTable table(boolean useUppercase, boolean useDigits, boolean useSpecialChars) {
+        return PasswordPolicy.of(useUppercase, useDigits, useSpecialChars).table();
+    }
+
+    /**
+     * Проверяет, что пароль заданной длины можно сгенерировать по таблице символов.
+     *
+     * @param length длина пароля.
+     * @param table  таблица символов.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     */
+    private static void validateLength(long length, CharsetTable table) throws PasswordGeneratorException {
+        if (length < 1) {
+            logger.error("Длина пароля должна быть не менее 1.");
+            throw new PasswordGeneratorException("Длина пароля должна быть не менее 1.");
+        }
+        if (length > MAX_LENGTH) {
+            throw new PasswordGeneratorException("Длина пароля слишком велика.");
         }
+        if (length < table.minLength()) {
+            throw new PasswordGeneratorException("Длина пароля должна быть не менее " + table.minLength() + ".");
+        }
+    }
 
-        // Перемешивание пароля
-        String randomizedPassword = shuffleString(password.toString());
-        long endTime = System.nanoTime();
-        long generationTime = endTime - startTime;
+    /**
+     * Заполняет массив символами пароля: сначала по одному символу из каждого обязательного набора,
+     * затем случайными символами из общего набора, после чего перемешивает результат на месте.
+     * Индексы символов и перемешивания берутся из байтов, запрошенных у генератора блоком ({@link RandomSampler}).
+     *
+     * @param password массив для записи пароля.
+     * @param length   длина пароля.
+     * @param table    таблица символов.
+     * @param random   генератор случайных чисел.
+     */
+    static void fill(char[] password, int length, CharsetTable table, Random random) {
+        RandomSampler sampler = sampler(random);
+        int position = 0;
 
-        logger.info("Пароль сгенерирован за {} наносекунд: {}", generationTime, randomizedPassword);
-        return new PasswordResult(randomizedPassword, generationTime);
+        // Добавление обязательных символов для указанных наборов
+        for (char[] required : table.required()) {
+            password[position++] = required[sampler.nextInt(required.length)];
+        }
+
+        // Заполнение оставшихся символов
+        sampler.fill(password, position, length, table.charset());
+
+        // Перемешивание пароля индексами из того же буфера случайных байтов
+        sampler.shuffle(password, length);
+        sampler.wipe();
+    }
+
+    /**
+     * Перемешивает первые {@code length} символов массива на месте алгоритмом Фишера — Йетса.
+     *
+     * @param chars  массив символов.
+     * @param length количество перемешиваемых символов.
+     * @param random генератор случайных чисел.
+     */
+    static void shuffle(char[] chars, int length, Random random) {
+        RandomSampler sampler = sampler(random);
+        sampler.shuffle(chars, length);
+        sampler.wipe();
     }
 
     /**
-     * Перемешивает символы в строке.
+     * Возвращает выборку случайных индексов текущего потока для указанного генератора.
+     * Выборка переиспользуется, пока поток обращается к тому же генератору.
      *
-     * @param input исходная строка.
-     * @return строка с перемешанными символами.
+     * @param random генератор случайных чисел.
+     * @return выборка случайных индексов.
+     */
+    static RandomSampler sampler(Random random) {
+        RandomSampler sampler = SAMPLERS.get();
+        if (sampler == null || sampler.random() != random) {
+            sampler = new RandomSampler(random);
+            SAMPLERS.set(sampler);
+        }
+        return sampler;
+    }
+
+    /**
+     * Получатель фрагментов пароля при потоковой генерации.
+     */
+    @FunctionalInterface
+    private interface ChunkSink {
+
+        /**
+         * Принимает очередной фрагмент пароля.
+         *
+         * @param chunk буфер с символами фрагмента.
+         * @param count количество символов фрагмента в начале буфера.
+         * @throws IOException если фрагмент не удалось записать.
+         */
+        void accept(char[] chunk, int count) throws IOException;
+    }
+
+    /**
+     * Подзадача пакетной генерации паролей для {@link ForkJoinPool}.
+     * Делит диапазон пополам, пока он больше порога, а листовая задача
+     * генерирует свой диапазон с генератором случайных чисел своего потока.
      */
-    private String shuffleString(String input) {
-        List<Character> characters = input.chars().mapToObj(c -> (char) c).collect(Collectors.toList());
-        Collections.shuffle(characters);
-        StringBuilder shuffled = new StringBuilder();
-        for (char c : characters) {
-            shuffled.append(c);
+    private static final class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PasswordResult[] results;
+        private final int from;
+        private final int to;
+        private final int length;
+        private final CharsetTable table;
+        private final RandomSource randomSource;
+        private final int threshold;
+
+        BatchTask(PasswordResult[] results, int from, int to, int length, CharsetTable table,
+                  RandomSource randomSource, int threshold) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.length = length;
+            this.table = table;
+            this.randomSource = randomSource;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                generateRange(results, from, to, length, table, randomSource);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(results, from, middle, length, table, randomSource, threshold),
+                    new BatchTask(results, middle, to, length, table, randomSource, threshold));
         }
-        return shuffled.toString();
     }
 }
@@ -0,0 +1,332 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Хеширование паролей для хранения по алгоритму PBKDF2 с HMAC-SHA256 из JDK.
+ * <p>
+ * Хеш хранится в виде {@code pbkdf2-sha256$<итерации>$<соль>$<хеш>} (соль и хеш в Base64),
+ * поэтому стоимость хранится в каждой строке: после увеличения количества итераций старые хеши
+ * продолжают проверяться и пересчитываются при следующей успешной проверке.
+ * <p>
+ * Для пакетной записи хеши вычисляются на ограниченном пуле потоков параллельно с записью
+ * в базу данных ({@link #hashAll(Iterator)}).
+ * <p>
+ * Количество итераций в сохранённом хеше ограничено {@link #MAX_ITERATIONS}, чтобы подменённая
+ * или повреждённая строка не заставляла проверку пароля выполняться сколь угодно долго.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(PasswordHasher.class);
+
+    /**
+     * Количество итераций по умолчанию.
+     */
+    public static final int DEFAULT_ITERATIONS = 600000;
+
+    /**
+     * Максимальное количество итераций в хеше, которое принимается при проверке и хешировании.
+     */
+    public static final int MAX_ITERATIONS = DEFAULT_ITERATIONS * 10;
+
+    // Префикс и параметры формата хеша
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_SIZE = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    // Фабрика ключей для каждого потока, чтобы не искать провайдера при каждом вычислении
+    private static final ThreadLocal<SecretKeyFactory> FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Алгоритм " + ALGORITHM + " не поддерживается.", e);
+        }
+    });
+
+    private final int iterations;
+    private final int threads;
+    private final RandomSource randomSource;
+
+    // Пул потоков для пакетного хеширования, создаётся при первом использовании
+    private ExecutorService executor;
+
+    // Хеш для проверки несуществующих логинов, чтобы время ответа не выдавало их отсутствие
+    private volatile String dummyHash;
+
+    /**
+     * Конструктор с количеством итераций по умолчанию и пулом по количеству процессоров.
+     */
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Конструктор с указанием стоимости хеширования и размера пула.
+     *
+     * @param iterations количество итераций PBKDF2 для новых хешей, не более {@link #MAX_ITERATIONS}.
+     * @param threads    количество потоков пакетного хеширования.
+     * @throws IllegalArgumentException если параметры меньше 1 или количество итераций больше максимального.
+     */
+    public PasswordHasher(int iterations, int threads) {
+        if (iterations < 1 || threads < 1) {
+            throw new IllegalArgumentException("Количество итераций и потоков должно быть не менее 1.");
+        }
+        if (iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("Количество итераций должно быть не более " + MAX_ITERATIONS + ".");
+        }
+        this.iterations = iterations;
+        this.threads = threads;
+        this.randomSource = SecureRandomPool.shared();
+        logger.info("Хеширование паролей: {} итераций, {} потоков", iterations, threads);
+    }
+
+    /**
+     * Возвращает количество итераций для новых хешей.
+     *
+     * @return количество итераций.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Вычисляет хеш пароля со случайной солью.
+     *
+     * @param password пароль.
+     * @return хеш в формате хранения.
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_SIZE];
+        randomSource.current().nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        return PREFIX + '$' + iterations + '$' + ENCODER.encodeToString(salt) + '$' + ENCODER.encodeToString(hash);
+    }
+
+    /**
+     * Проверяет пароль по сохранённому значению.
+     * Значения не в формате хеша считаются паролями, сохранёнными открытым текстом до включения хеширования,
+     * и сравниваются за время, не зависящее от позиции первого различия.
+     * Хеши с количеством итераций больше {@link #MAX_ITERATIONS} считаются повреждёнными и не вычисляются.
+     *
+     * @param password проверяемый пароль.
+     * @param stored   сохранённое значение.
+     * @return {@code true}, если пароль совпадает.
+     */
+    public static boolean verify(String password, String stored) {
+        if (!isHash(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("неверное количество полей");
+            }
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = DECODER.decode(parts[2]);
+            byte[] expected = DECODER.decode(parts[3]);
+            if (storedIterations < 1 || storedIterations > MAX_ITERATIONS) {
+                throw new IllegalArgumentException("неверное количество итераций: " + storedIterations);
+            }
+            return MessageDigest.isEqual(pbkdf2(password, salt, storedIterations), expected);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Сохранённый хеш пароля повреждён: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Выполняет проверку пароля по заранее вычисленному хешу, не совпадающему ни с одним паролем.
+     * Используется для несуществующих логинов, чтобы время ответа было таким же, как для существующих.
+     */
+    public void verifyDummy() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = hash("\0");
+            dummyHash = hash;
+        }
+        verify("\1", hash);
+    }
+
+    /**
+     * Проверяет, нужно ли пересчитать сохранённое значение: оно хранится открытым текстом
+     * или вычислено с меньшим количеством итераций, чем текущее.
+     *
+     * @param stored сохранённое значение.
+     * @return {@code true}, если значение нужно пересчитать.
+     */
+    public boolean needsRehash(String stored) {
+        if (!isHash(stored)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length() + 1);
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length() + 1, end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Проверяет, является ли сохранённое значение хешем.
+     *
+     * @param stored сохранённое значение.
+     * @return {@code true}, если значение в формате хеша.
+     */
+    public static boolean isHash(String stored) {
+        return stored.startsWith(PREFIX + '$');
+    }
+
+    /**
+     * Итератор учётных данных с хешированными паролями.
+     * Закрытие итератора отменяет хеши, вычисляемые заранее, поэтому его нужно закрывать,
+     * если чтение прекращено до конца, например при ошибке записи.
+     */
+    public interface HashIterator extends Iterator<Credential>, AutoCloseable {
+
+        /**
+         * Отменяет хеши, вычисляемые заранее, и освобождает их очередь.
+         * После закрытия итератор не читает новые учётные данные.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Возвращает итератор учётных данных с хешированными паролями.
+     * Хеши вычисляются на пуле потоков с опережением чтения не более чем на несколько элементов на поток,
+     * поэтому потребитель (например, пакетная запись в базу данных) работает параллельно с хешированием,
+     * а память не зависит от количества учётных данных. Порядок элементов сохраняется.
+     * Хешируется каждое значение, даже если оно похоже на хеш: значения, которые уже хешированы
+     * (например, в выгрузке базы данных), передаются в запись явно, минуя хеширование.
+     *
+     * @param credentials учётные данные с открытыми паролями.
+     * @return учётные данные с хешированными паролями.
+     */
+    public HashIterator hashAll(Iterator<Credential> credentials) {
+        return hashAll(credentials, threads * 4);
+    }
+
+    /**
+     * Возвращает итератор учётных данных с хешированными паролями, вычисляя хеши с указанным опережением.
+     * Чтобы запись порции в базу данных шла одновременно с хешированием следующей,
+     * опережение должно быть не меньше размера порции.
+     *
+     * @param credentials учётные данные с открытыми паролями.
+     * @param window      максимальное количество хешей, вычисляемых заранее.
+     * @return учётные данные с хешированными паролями.
+     */
+    public HashIterator hashAll(Iterator<Credential> credentials, int window) {
+        ExecutorService pool = executor();
+        return new HashIterator() {
+
+            private final ArrayDeque<Future<Credential>> pending = new ArrayDeque<>();
+            private boolean closed;
+
+            @Override
+            public boolean hasNext() {
+                fill();
+                return !pending.isEmpty();
+            }
+
+            @Override
+            public Credential next() {
+                fill();
+                Future<Credential> future = pending.poll();
+                if (future == null) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Хеширование паролей прервано.", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Ошибка хеширования пароля.", e.getCause());
+                }
+            }
+
+            private void fill() {
+                while (!closed && pending.size() < Math.max(1, window) && credentials.hasNext()) {
+                    Credential credential = credentials.next();
+                    pending.add(pool.submit(() -> new Credential(credential.getLogin(), hash(credential.getPassword()))));
+                }
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+                Future<Credential> future;
+                while ((future = pending.poll()) != null) {
+                    future.cancel(true);
+                }
+            }
+        };
+    }
+
+    /**
+     * Останавливает пул потоков пакетного хеширования.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Возвращает пул потоков пакетного хеширования, создавая его при необходимости.
+     *
+     * @return пул потоков.
+     */
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "password-hasher-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Вычисляет PBKDF2 от пароля.
+     *
+     * @param password   пароль.
+     * @param salt       соль.
+     * @param iterations количество итераций.
+     * @return хеш.
+     */
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return FACTORY.get().generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось вычислить хеш пароля.", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
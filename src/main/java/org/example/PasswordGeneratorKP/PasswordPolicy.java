@@ -0,0 +1,473 @@
+package org.example.PasswordGeneratorKP;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Политика генерации паролей: наборы символов, минимальное количество символов из каждого набора,
+ * исключаемые символы и выбор латиницы и кириллицы.
+ * <p>
+ * Политика проверяется один раз при создании и компилируется в неизменяемую таблицу символов
+ * без повторов, которая кэшируется и используется всеми политиками с теми же наборами.
+ * Генерация по политике сводится к выбору случайных индексов в таблице.
+ * Политики создаются через {@link #builder()}.
+ */
+public final class PasswordPolicy {
+
+    // Наборы символов
+    static final String LATIN_LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
+    static final String CYRILLIC_LOWERCASE = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+    static final String LATIN_UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    static final String CYRILLIC_UPPERCASE = "АБВГДЕЁЖЗИЙКЛМНОПРСТУФХЦЧШЩЪЫЬЭЮЯ";
+    static final String DIGITS = "0123456789";
+    static final String SPECIAL_CHARS = "!@#$%^&*()-_=+<>?";
+
+    /**
+     * Символы, которые легко спутать друг с другом при чтении, в том числе кириллические буквы,
+     * совпадающие по начертанию с латинскими буквами и цифрами.
+     */
+    public static final String AMBIGUOUS_CHARS = "Il1|O0oОоЗзВЕКМНРСТХаеорсух";
+
+    // Значение минимального количества, означающее, что набор не используется
+    private static final int DISABLED = Integer.MIN_VALUE;
+
+    // Скомпилированные таблицы символов для одинаковых наборов
+    private static final ConcurrentHashMap<List<CharacterClass>, CharsetTable> TABLES = new ConcurrentHashMap<>();
+
+    // Политики, соответствующие флагам заглавных букв, цифр и специальных символов
+    private static final PasswordPolicy[] DEFAULTS = new PasswordPolicy[8];
+
+    static {
+        for (int mask = 0; mask < DEFAULTS.length; mask++) {
+            Builder builder = builder();
+            if ((mask & 1) != 0) {
+                builder.uppercase(1);
+            }
+            if ((mask & 2) != 0) {
+                builder.digits(1);
+            }
+            if ((mask & 4) != 0) {
+                builder.specialChars(1);
+            }
+            try {
+                DEFAULTS[mask] = builder.build();
+            } catch (PasswordGeneratorException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    /**
+     * Набор символов с минимальным количеством символов из него в пароле.
+     */
+    private static final class CharacterClass {
+
+        private final String name;
+        private final String chars;
+        private final int minCount;
+
+        CharacterClass(String name, String chars, int minCount) {
+            this.name = name;
+            this.chars = chars;
+            this.minCount = minCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CharacterClass)) {
+                return false;
+            }
+            CharacterClass other = (CharacterClass) o;
+            return minCount == other.minCount && chars.equals(other.chars);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * chars.hashCode() + minCount;
+        }
+
+        @Override
+        public String toString() {
+            return name + "(" + chars.length() + " символов, не менее " + minCount + ")";
+        }
+    }
+
+    private final List<CharacterClass> classes;
+    private final CharsetTable table;
+
+    /**
+     * Конструктор политики. Политики создаются через {@link Builder#build()}.
+     *
+     * @param classes проверенные наборы символов.
+     */
+    private PasswordPolicy(List<CharacterClass> classes) {
+        this.classes = classes;
+        this.table = TABLES.computeIfAbsent(classes, PasswordPolicy::compile);
+    }
+
+    /**
+     * Создаёт построитель политики. По умолчанию политика содержит строчные латинские и кириллические буквы
+     * без минимального количества, а заглавные буквы, цифры и специальные символы не используются.
+     *
+     * @return построитель политики.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Возвращает политику, соответствующую флагам генерации: каждый включённый набор
+     * должен встречаться в пароле хотя бы один раз.
+     *
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @return политика генерации.
+     */
+    public static PasswordPolicy of(boolean useUppercase, boolean useDigits, boolean useSpecialChars) {
+        return DEFAULTS[(useUppercase ? 1 : 0) | (useDigits ? 2 : 0) | (useSpecialChars ? 4 : 0)];
+    }
+
+    /**
+     * Возвращает минимальную длину пароля, при которой выполнимы минимальные количества всех наборов.
+     *
+     * @return минимальная длина пароля.
+     */
+    public int getMinLength() {
+        return table.minLength();
+    }
+
+    /**
+     * Возвращает количество различных символов, из которых составляется пароль.
+     *
+     * @return размер общего набора символов.
+     */
+    public int getCharsetSize() {
+        return table.charset().length;
+    }
+
+    /**
+     * Вычисляет количество различных паролей заданной длины, удовлетворяющих политике.
+     * Пароли считаются динамическим программированием по наборам: для каждого набора перебирается
+     * количество его символов в пароле не меньше минимального, их позиции и сами символы.
+     *
+     * @param length длина пароля.
+     * @return количество паролей или {@link Long#MAX_VALUE}, если их не меньше.
+     */
+    public long keyspace(int length) {
+        if (length < table.required().length) {
+            return 0;
+        }
+        if (table.charset().length == 1) {
+            return 1;
+        }
+        // Свободные позиции независимо принимают не менее двух значений
+        if (length - table.required().length >= Long.SIZE - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        long[] ways = new long[length + 1];
+        ways[0] = 1;
+        long[] binomial = new long[length + 1];
+        for (CharacterClass characterClass : classes) {
+            long[] next = new long[length + 1];
+            long[] powers = new long[length + 1];
+            powers[0] = 1;
+            for (int k = 1; k <= length; k++) {
+                powers[k] = multiply(powers[k - 1], characterClass.chars.length());
+            }
+            Arrays.fill(binomial, 0);
+            binomial[0] = 1;
+            for (int j = 0; j <= length; j++) {
+                // Строка треугольника Паскаля для j позиций
+                for (int k = j; k > 0; k--) {
+                    binomial[k] = add(binomial[k], binomial[k - 1]);
+                }
+                for (int k = characterClass.minCount; k <= j; k++) {
+                    next[j] = add(next[j], multiply(multiply(ways[j - k], binomial[k]), powers[k]));
+                }
+            }
+            ways = next;
+        }
+        return ways[length];
+    }
+
+    /**
+     * Возвращает скомпилированную таблицу символов.
+     *
+     * @return таблица символов.
+     */
+    CharsetTable table() {
+        return table;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PasswordPolicy && classes.equals(((PasswordPolicy) o).classes);
+    }
+
+    @Override
+    public int hashCode() {
+        return classes.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "PasswordPolicy" + classes;
+    }
+
+    /**
+     * Складывает неотрицательные числа с насыщением до {@link Long#MAX_VALUE}.
+     *
+     * @param a первое слагаемое.
+     * @param b второе слагаемое.
+     * @return сумма или {@link Long#MAX_VALUE} при переполнении.
+     */
+    private static long add(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * Перемножает неотрицательные числа с насыщением до {@link Long#MAX_VALUE}.
+     *
+     * @param a первый множитель.
+     * @param b второй множитель.
+     * @return произведение или {@link Long#MAX_VALUE} при переполнении.
+     */
+    private static long multiply(long a, long b) {
+        long product = a * b;
+        return Math.multiplyHigh(a, b) != 0 || product < 0 ? Long.MAX_VALUE : product;
+    }
+
+    /**
+     * Компилирует наборы символов в таблицу: общий набор из всех символов и обязательные наборы,
+     * в которых каждый набор повторяется столько раз, каково его минимальное количество.
+     *
+     * @param classes наборы символов.
+     * @return таблица символов.
+     */
+    private static CharsetTable compile(List<CharacterClass> classes) {
+        StringBuilder charset = new StringBuilder();
+        List<char[]> required = new ArrayList<>();
+        for (CharacterClass characterClass : classes) {
+            char[] chars = characterClass.chars.toCharArray();
+            charset.append(chars);
+            for (int i = 0; i < characterClass.minCount; i++) {
+                required.add(chars);
+            }
+        }
+        return new CharsetTable(charset.toString().toCharArray(), required.toArray(new char[0][]));
+    }
+
+    /**
+     * Построитель политики генерации паролей.
+     */
+    public static final class Builder {
+
+        private int lowercase = 0;
+        private int uppercase = DISABLED;
+        private int digits = DISABLED;
+        private int specialChars = DISABLED;
+        private boolean latin = true;
+        private boolean cyrillic = true;
+        private final StringBuilder excluded = new StringBuilder();
+        private final List<CharacterClass> custom = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Включает строчные буквы.
+         *
+         * @param minCount минимальное количество строчных букв в пароле.
+         * @return этот построитель.
+         */
+        public Builder lowercase(int minCount) {
+            this.lowercase = minCount;
+            return this;
+        }
+
+        /**
+         * Исключает строчные буквы.
+         *
+         * @return этот построитель.
+         */
+        public Builder withoutLowercase() {
+            this.lowercase = DISABLED;
+            return this;
+        }
+
+        /**
+         * Включает заглавные буквы.
+         *
+         * @param minCount минимальное количество заглавных букв в пароле.
+         * @return этот построитель.
+         */
+        public Builder uppercase(int minCount) {
+            this.uppercase = minCount;
+            return this;
+        }
+
+        /**
+         * Включает цифры.
+         *
+         * @param minCount минимальное количество цифр в пароле.
+         * @return этот построитель.
+         */
+        public Builder digits(int minCount) {
+            this.digits = minCount;
+            return this;
+        }
+
+        /**
+         * Включает специальные символы.
+         *
+         * @param minCount минимальное количество специальных символов в пароле.
+         * @return этот построитель.
+         */
+        public Builder specialChars(int minCount) {
+            this.specialChars = minCount;
+            return this;
+        }
+
+        /**
+         * Добавляет произвольный набор символов. Наборы не должны пересекаться.
+         *
+         * @param name     название набора для сообщений об ошибках.
+         * @param chars    символы набора; повторы игнорируются.
+         * @param minCount минимальное количество символов набора в пароле.
+         * @return этот построитель.
+         */
+        public Builder characterClass(String name, String chars, int minCount) {
+            custom.add(new CharacterClass(Objects.requireNonNull(name), Objects.requireNonNull(chars), minCount));
+            return this;
+        }
+
+        /**
+         * Включает или исключает латинские буквы.
+         *
+         * @param latin использовать ли латинские буквы.
+         * @return этот построитель.
+         */
+        public Builder latin(boolean latin) {
+            this.latin = latin;
+            return this;
+        }
+
+        /**
+         * Включает или исключает кириллические буквы.
+         *
+         * @param cyrillic использовать ли кириллические буквы.
+         * @return этот построитель.
+         */
+        public Builder cyrillic(boolean cyrillic) {
+            this.cyrillic = cyrillic;
+            return this;
+        }
+
+        /**
+         * Оставляет только символы ASCII: исключает кириллические буквы.
+         *
+         * @return этот построитель.
+         */
+        public Builder asciiOnly() {
+            return cyrillic(false);
+        }
+
+        /**
+         * Исключает указанные символы из всех наборов.
+         *
+         * @param chars исключаемые символы.
+         * @return этот построитель.
+         */
+        public Builder exclude(String chars) {
+            excluded.append(chars);
+            return this;
+        }
+
+        /**
+         * Исключает из всех наборов символы, которые легко спутать при чтении ({@link #AMBIGUOUS_CHARS}).
+         *
+         * @return этот построитель.
+         */
+        public Builder excludeAmbiguous() {
+            return exclude(AMBIGUOUS_CHARS);
+        }
+
+        /**
+         * Проверяет параметры и создаёт политику.
+         *
+         * @return политика генерации.
+         * @throws PasswordGeneratorException если минимальное количество отрицательно, набор пуст
+         *                                    после исключений или наборы пересекаются.
+         */
+        public PasswordPolicy build() throws PasswordGeneratorException {
+            List<CharacterClass> classes = new ArrayList<>();
+            add(classes, "строчные буквы", (latin ? LATIN_LOWERCASE : "") + (cyrillic ? CYRILLIC_LOWERCASE : ""), lowercase);
+            add(classes, "заглавные буквы", (latin ? LATIN_UPPERCASE : "") + (cyrillic ? CYRILLIC_UPPERCASE : ""), uppercase);
+            add(classes, "цифры", DIGITS, digits);
+            add(classes, "специальные символы", SPECIAL_CHARS, specialChars);
+            for (CharacterClass characterClass : custom) {
+                add(classes, characterClass.name, characterClass.chars, characterClass.minCount);
+            }
+            if (classes.isEmpty()) {
+                throw new PasswordGeneratorException("Политика не содержит ни одного набора символов.");
+            }
+
+            long minLength = 0;
+            Set<Character> seen = new LinkedHashSet<>();
+            for (CharacterClass characterClass : classes) {
+                minLength += characterClass.minCount;
+                for (int i = 0; i < characterClass.chars.length(); i++) {
+                    if (!seen.add(characterClass.chars.charAt(i))) {
+                        throw new PasswordGeneratorException("Символ '" + characterClass.chars.charAt(i)
+                                + "' входит в несколько наборов; наборы не должны пересекаться.");
+                    }
+                }
+            }
+            if (minLength > PasswordGenerator.MAX_LENGTH) {
+                throw new PasswordGeneratorException("Сумма минимальных количеств символов слишком велика.");
+            }
+            return new PasswordPolicy(Collections.unmodifiableList(classes));
+        }
+
+        /**
+         * Добавляет набор символов без повторов и исключённых символов, если он используется.
+         *
+         * @param classes  список наборов.
+         * @param name     название набора.
+         * @param chars    символы набора.
+         * @param minCount минимальное количество или {@link #DISABLED}.
+         * @throws PasswordGeneratorException если набор пуст после исключений.
+         */
+        private void add(List<CharacterClass> classes, String name, String chars, int minCount) throws PasswordGeneratorException {
+            if (minCount == DISABLED) {
+                return;
+            }
+            if (minCount < 0) {
+                throw new PasswordGeneratorException("Минимальное количество символов набора \"" + name + "\" не может быть отрицательным.");
+            }
+            StringBuilder unique = new StringBuilder(chars.length());
+            for (int i = 0; i < chars.length(); i++) {
+                char c = chars.charAt(i);
+                if (excluded.indexOf(String.valueOf(c)) < 0 && unique.indexOf(String.valueOf(c)) < 0) {
+                    unique.append(c);
+                }
+            }
+            if (unique.length() == 0) {
+                throw new PasswordGeneratorException("Набор символов \"" + name + "\" пуст.");
+            }
+            classes.add(new CharacterClass(name, unique.toString(), minCount));
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул заранее сгенерированных паролей для интерактивных запросов.
+ * <p>
+ * Для каждой пары «длина и политика генерации» ведётся своя очередь готовых {@link PasswordResult}.
+ * Очередь создаётся при первом запросе и пополняется фоновыми потоками до верхней границы,
+ * как только её глубина опускается до нижней. Выдача из очереди выполняется без блокировок
+ * ({@link ConcurrentLinkedQueue#poll()}) за O(1), а каждый пароль извлекается из очереди ровно один раз
+ * и поэтому никогда не выдаётся повторно. Если очередь пуста, пароль генерируется напрямую.
+ * <p>
+ * Готовые пароли хранятся в памяти до выдачи, поэтому пул ограничен по количеству очередей
+ * и длине паролей; длинные пароли и запросы сверх лимита очередей всегда генерируются напрямую.
+ */
+public class PasswordPool implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(PasswordPool.class);
+
+    /**
+     * Нижняя граница глубины очереди по умолчанию.
+     */
+    public static final int DEFAULT_LOW_WATERMARK = 16;
+
+    /**
+     * Верхняя граница глубины очереди по умолчанию.
+     */
+    public static final int DEFAULT_HIGH_WATERMARK = 64;
+
+    /**
+     * Максимальная длина паролей, которые хранятся в пуле.
+     */
+    public static final int MAX_POOLED_LENGTH = 1024;
+
+    /**
+     * Максимальное количество очередей (различных пар длины и политики).
+     */
+    public static final int MAX_POOLS = 64;
+
+    private final PasswordGenerator generator;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<Key, Queue> queues = new ConcurrentHashMap<>();
+
+    // Статистика пула
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refilled = new LongAdder();
+    private final LongAdder refillNanos = new LongAdder();
+
+    private volatile boolean closed;
+
+    /**
+     * Конструктор пула с границами по умолчанию и одним потоком пополнения.
+     *
+     * @param generator генератор паролей.
+     */
+    public PasswordPool(PasswordGenerator generator) {
+        this(generator, DEFAULT_LOW_WATERMARK, DEFAULT_HIGH_WATERMARK, 1);
+    }
+
+    /**
+     * Конструктор пула.
+     *
+     * @param generator     генератор паролей.
+     * @param lowWatermark  глубина очереди, при которой начинается пополнение.
+     * @param highWatermark глубина очереди, до которой она пополняется.
+     * @param threads       количество потоков пополнения.
+     * @throws IllegalArgumentException если границы или количество потоков некорректны.
+     */
+    public PasswordPool(PasswordGenerator generator, int lowWatermark, int highWatermark, int threads) {
+        if (lowWatermark < 0 || highWatermark <= lowWatermark) {
+            throw new IllegalArgumentException("Границы пула должны удовлетворять условию 0 <= нижняя < верхняя.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Количество потоков пополнения должно быть не менее 1.");
+        }
+        this.generator = generator;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "password-pool-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Выдаёт пароль из пула или генерирует его напрямую, если пул пуст.
+     *
+     * @param length          длина пароля.
+     * @param useUppercase    использовать ли заглавные буквы.
+     * @param useDigits       использовать ли цифры.
+     * @param useSpecialChars использовать ли специальные символы.
+     * @return объект {@link PasswordResult}; время генерации — время исходной генерации пароля.
+     * @throws PasswordGeneratorException если длина пароля некорректна.
+     */
+    public PasswordResult take(int length, boolean useUppercase, boolean useDigits, boolean useSpecialChars) throws PasswordGeneratorException {
+        return take(length, PasswordPolicy.of(useUppercase, useDigits, useSpecialChars));
+    }
+
+    /**
+     * Выдаёт пароль из пула или генерирует его напрямую, если пул пуст.
+     *
+     * @param length длина пароля.
+     * @param policy политика генерации.
+     * @return объект {@link PasswordResult}; время генерации — время исходной генерации пароля.
+     * @throws PasswordGeneratorException если длина пароля некорректна или меньше минимальной длины политики.
+     */
+    public PasswordResult take(int length, PasswordPolicy policy) throws PasswordGeneratorException {
+        Key key = new Key(length, policy);
+        Queue queue = queues.get(key);
+        if (queue != null) {
+            PasswordResult result = queue.passwords.poll();
+            if (result != null) {
+                hits.increment();
+                if (queue.depth.decrementAndGet() <= lowWatermark) {
+                    scheduleRefill(queue);
+                }
+                return result;
+            }
+        }
+
+        // Промах: пароль генерируется напрямую, что заодно проверяет параметры до создания очереди
+        misses.increment();
+        PasswordResult result = generator.generatePassword(length, policy);
+        if (queue == null) {
+            queue = queue(key);
+        }
+        if (queue != null) {
+            scheduleRefill(queue);
+        }
+        return result;
+    }
+
+    /**
+     * Создаёт очередь для длины и политики и заполняет её до верхней границы в фоне.
+     *
+     * @param length длина паролей.
+     * @param policy политика генерации.
+     * @throws PasswordGeneratorException если длина пароля некорректна или меньше минимальной длины политики.
+     */
+    public void prefill(int length, PasswordPolicy policy) throws PasswordGeneratorException {
+        generator.generatePasswords(0, length, policy, false);
+        Queue queue = queue(new Key(length, policy));
+        if (queue != null) {
+            scheduleRefill(queue);
+        }
+    }
+
+    /**
+     * Возвращает количество готовых паролей для длины и политики.
+     *
+     * @param length длина паролей.
+     * @param policy политика генерации.
+     * @return количество паролей или 0, если очереди нет.
+     */
+    public int getDepth(int length, PasswordPolicy policy) {
+        Queue queue = queues.get(new Key(length, policy));
+        return queue == null ? 0 : queue.depth.get();
+    }
+
+    /**
+     * Возвращает общее количество готовых паролей во всех очередях.
+     *
+     * @return количество паролей.
+     */
+    public long getDepth() {
+        long depth = 0;
+        for (Queue queue : queues.values()) {
+            depth += queue.depth.get();
+        }
+        return depth;
+    }
+
+    /**
+     * Возвращает количество очередей.
+     *
+     * @return количество очередей.
+     */
+    public int getPoolCount() {
+        return queues.size();
+    }
+
+    /**
+     * Возвращает количество паролей, выданных из пула.
+     *
+     * @return количество попаданий.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает количество паролей, сгенерированных напрямую из-за пустого пула.
+     *
+     * @return количество промахов.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Возвращает количество паролей, добавленных в пул фоновым пополнением.
+     *
+     * @return количество паролей.
+     */
+    public long getRefilled() {
+        return refilled.sum();
+    }
+
+    /**
+     * Возвращает скорость фонового пополнения: количество паролей в секунду времени работы пополнения.
+     *
+     * @return скорость пополнения или 0, если пополнения ещё не было.
+     */
+    public double getRefillRate() {
+        long nanos = refillNanos.sum();
+        return nanos == 0 ? 0 : refilled.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * Останавливает потоки пополнения и удаляет готовые пароли из пула.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        queues.clear();
+        logger.info("Пул паролей закрыт: выдано из пула {}, сгенерировано напрямую {}, пополнено {}",
+                hits.sum(), misses.sum(), refilled.sum());
+    }
+
+    /**
+     * Возвращает очередь для ключа, создавая её, если длина допустима и лимит очередей не исчерпан.
+     *
+     * @param key ключ очереди.
+     * @return очередь или {@code null}, если пароли для ключа не хранятся в пуле.
+     */
+    private Queue queue(Key key) {
+        if (key.length > MAX_POOLED_LENGTH || closed) {
+            return null;
+        }
+        Queue queue = queues.get(key);
+        if (queue == null && queues.size() < MAX_POOLS) {
+            queue = queues.computeIfAbsent(key, Queue::new);
+        }
+        return queue;
+    }
+
+    /**
+     * Запускает пополнение очереди, если оно ещё не запущено.
+     *
+     * @param queue очередь.
+     */
+    private void scheduleRefill(Queue queue) {
+        if (closed || !queue.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> refill(queue));
+        } catch (RejectedExecutionException e) {
+            queue.refilling.set(false);
+        }
+    }
+
+    /**
+     * Пополняет очередь до верхней границы. Если за время пополнения глубина снова упала
+     * до нижней границы, пополнение повторяется.
+     *
+     * @param queue очередь.
+     */
+    private void refill(Queue queue) {
+        try {
+            int missing;
+            while (!closed && (missing = highWatermark - queue.depth.get()) > 0) {
+                long startTime = System.nanoTime();
+                List<PasswordResult> passwords = generator.generatePasswords(missing, queue.key.length,
+                        queue.key.policy, false).getPasswords();
+                for (PasswordResult password : passwords) {
+                    queue.passwords.offer(password);
+                    queue.depth.incrementAndGet();
+                }
+                refillNanos.add(System.nanoTime() - startTime);
+                refilled.add(passwords.size());
+            }
+        } catch (PasswordGeneratorException e) {
+            logger.error("Ошибка пополнения пула паролей {}: {}", queue.key, e.getMessage());
+        } finally {
+            queue.refilling.set(false);
+        }
+        if (!closed && queue.depth.get() <= lowWatermark) {
+            scheduleRefill(queue);
+        }
+    }
+
+    /**
+     * Ключ очереди: длина и политика генерации.
+     */
+    private static final class Key {
+
+        private final int length;
+        private final PasswordPolicy policy;
+
+        Key(int length, PasswordPolicy policy) {
+            this.length = length;
+            this.policy = policy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return length == other.length && policy.equals(other.policy);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(length, policy);
+        }
+
+        @Override
+        public String toString() {
+            return "длина " + length + ", " + policy;
+        }
+    }
+
+    /**
+     * Очередь готовых паролей одного ключа. Глубина ведётся отдельным счётчиком,
+     * потому что {@link ConcurrentLinkedQueue#size()} обходит всю очередь.
+     */
+    private static final class Queue {
+
+        private final Key key;
+        private final ConcurrentLinkedQueue<PasswordResult> passwords = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+
+        Queue(Key key) {
+            this.key = key;
+        }
+    }
+}
@@ -11,6 +11,11 @@ public class PasswordResult extends Result {
      */
     private final String password;
 
+    /**
+     * Оценка надёжности пароля, вычисляемая при первом обращении.
+     */
+    private volatile PasswordStrength strength;
+
     /**
      * Конструктор для создания объекта результата генерации пароля.
      *
@@ -30,4 +35,19 @@ public class PasswordResult extends Result {
     public String getPassword() {
         return password;
     }
+
+    /**
+     * Возвращает оценку надёжности пароля. Оценка вычисляется при первом обращении,
+     * поэтому не замедляет генерацию.
+     *
+     * @return оценка надёжности пароля.
+     */
+    public PasswordStrength getStrength() {
+        PasswordStrength result = strength;
+        if (result == null) {
+            result = StrengthEstimator.get().estimate(password);
+            strength = result;
+        }
+        return result;
+    }
 }
@@ -0,0 +1,157 @@
+package org.example.PasswordGeneratorKP;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Оценка надёжности пароля, вычисленная {@link StrengthEstimator}.
+ * <p>
+ * Энтропия набора символов — это длина пароля, умноженная на двоичный логарифм размера набора
+ * из тех классов символов, которые действительно встречаются в пароле. Эффективная энтропия учитывает
+ * найденные шаблоны (словарные слова, последовательности, повторы, ряды клавиатуры) и не превышает её.
+ * Оценка от 0 до 4 вычисляется по эффективной энтропии.
+ */
+public final class PasswordStrength {
+
+    /**
+     * Шаблон, снижающий надёжность пароля.
+     */
+    public enum Pattern {
+        /** Слово из словаря распространённых паролей, в том числе с заменами символов или в другой раскладке. */
+        DICTIONARY,
+        /** Последовательность символов: abc, 123, cba. */
+        SEQUENCE,
+        /** Повтор одного символа: aaa. */
+        REPEAT,
+        /** Соседние клавиши одного ряда клавиатуры: qwerty, йцукен. */
+        KEYBOARD
+    }
+
+    // Нижние границы эффективной энтропии в битах для оценок 1–4
+    private static final double[] SCORE_BOUNDS = {28, 36, 60, 80};
+
+    private static final String[] LABELS = {"очень слабый", "слабый", "средний", "надёжный", "очень надёжный"};
+
+    private final int length;
+    private final int charsetSize;
+    private final double entropyBits;
+    private final double effectiveBits;
+    private final int patterns;
+
+    /**
+     * Конструктор оценки.
+     *
+     * @param length        длина пароля.
+     * @param charsetSize   размер набора символов.
+     * @param entropyBits   энтропия набора символов в битах.
+     * @param effectiveBits эффективная энтропия с учётом шаблонов в битах.
+     * @param patterns      битовая маска найденных шаблонов по {@link Pattern#ordinal()}.
+     */
+    PasswordStrength(int length, int charsetSize, double entropyBits, double effectiveBits, int patterns) {
+        this.length = length;
+        this.charsetSize = charsetSize;
+        this.entropyBits = entropyBits;
+        this.effectiveBits = effectiveBits;
+        this.patterns = patterns;
+    }
+
+    /**
+     * Возвращает оценку по эффективной энтропии.
+     *
+     * @param effectiveBits эффективная энтропия в битах.
+     * @return оценка от 0 до 4.
+     */
+    static int score(double effectiveBits) {
+        int score = 0;
+        while (score < SCORE_BOUNDS.length && effectiveBits >= SCORE_BOUNDS[score]) {
+            score++;
+        }
+        return score;
+    }
+
+    /**
+     * Возвращает название оценки.
+     *
+     * @param score оценка от 0 до 4.
+     * @return название оценки.
+     */
+    public static String label(int score) {
+        return LABELS[score];
+    }
+
+    /**
+     * Возвращает длину пароля.
+     *
+     * @return длина пароля.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Возвращает размер набора символов, из классов которого составлен пароль.
+     *
+     * @return размер набора символов.
+     */
+    public int getCharsetSize() {
+        return charsetSize;
+    }
+
+    /**
+     * Возвращает энтропию набора символов.
+     *
+     * @return энтропия в битах.
+     */
+    public double getEntropyBits() {
+        return entropyBits;
+    }
+
+    /**
+     * Возвращает эффективную энтропию с учётом найденных шаблонов.
+     *
+     * @return эффективная энтропия в битах.
+     */
+    public double getEffectiveBits() {
+        return effectiveBits;
+    }
+
+    /**
+     * Возвращает оценку надёжности.
+     *
+     * @return оценка от 0 (очень слабый) до 4 (очень надёжный).
+     */
+    public int getScore() {
+        return score(effectiveBits);
+    }
+
+    /**
+     * Возвращает название оценки надёжности.
+     *
+     * @return название оценки.
+     */
+    public String getLabel() {
+        return label(getScore());
+    }
+
+    /**
+     * Возвращает найденные шаблоны.
+     *
+     * @return неизменяемое множество шаблонов.
+     */
+    public Set<Pattern> getPatterns() {
+        EnumSet<Pattern> set = EnumSet.noneOf(Pattern.class);
+        for (Pattern pattern : Pattern.values()) {
+            if ((patterns & (1 << pattern.ordinal())) != 0) {
+                set.add(pattern);
+            }
+        }
+        return Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d), %.1f бит из %.1f, шаблоны: %s", getLabel(), getScore(), effectiveBits, entropyBits,
+                getPatterns());
+    }
+}
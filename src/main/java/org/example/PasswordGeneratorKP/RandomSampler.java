@@ -0,0 +1,167 @@
+package org.example.PasswordGeneratorKP;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Выборка случайных индексов из байтов, запрошенных у генератора одним блоком.
+ * <p>
+ * Вызов {@link Random#nextInt(int)} у {@link java.security.SecureRandom} дорог сам по себе и расходует
+ * 32 бита на каждое значение. Здесь байты запрашиваются через {@link Random#nextBytes(byte[])} в буфер
+ * многократного использования, а индекс строится из наименьшего числа байтов, при котором
+ * ожидаемый расход байтов минимален. Значения вне наибольшего кратного границе диапазона
+ * отбрасываются, поэтому распределение индексов остаётся строго равномерным.
+ * <p>
+ * Выборка не потокобезопасна: у каждого потока должен быть свой экземпляр.
+ */
+final class RandomSampler {
+
+    // Размер буфера случайных байтов
+    private static final int BUFFER_SIZE = 4096;
+
+    private final Random random;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    // Позиция первого неиспользованного байта в буфере
+    private int position = BUFFER_SIZE;
+
+    /**
+     * Конструктор выборки.
+     *
+     * @param random генератор случайных байтов.
+     */
+    RandomSampler(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Возвращает генератор случайных байтов.
+     *
+     * @return генератор случайных байтов.
+     */
+    Random random() {
+        return random;
+    }
+
+    /**
+     * Возвращает равномерно распределённое случайное число от 0 (включительно) до границы (не включительно).
+     *
+     * @param bound граница, не менее 1.
+     * @return случайное число.
+     */
+    int nextInt(int bound) {
+        if (bound == 1) {
+            return 0;
+        }
+        int width = width(bound);
+        return nextInt(bound, width, limit(bound, width));
+    }
+
+    /**
+     * Заполняет диапазон массива случайными символами алфавита.
+     *
+     * @param dest     массив для записи.
+     * @param from     начальный индекс (включительно).
+     * @param to       конечный индекс (не включительно).
+     * @param alphabet алфавит.
+     */
+    void fill(char[] dest, int from, int to, char[] alphabet) {
+        int bound = alphabet.length;
+        if (bound == 1) {
+            Arrays.fill(dest, from, to, alphabet[0]);
+            return;
+        }
+        int width = width(bound);
+        long limit = limit(bound, width);
+        for (int i = from; i < to; i++) {
+            dest[i] = alphabet[nextInt(bound, width, limit)];
+        }
+    }
+
+    /**
+     * Перемешивает первые {@code length} символов массива на месте алгоритмом Фишера — Йетса.
+     *
+     * @param chars  массив символов.
+     * @param length количество перемешиваемых символов.
+     */
+    void shuffle(char[] chars, int length) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            char tmp = chars[i];
+            chars[i] = chars[j];
+            chars[j] = tmp;
+        }
+    }
+
+    /**
+     * Затирает использованные байты буфера, чтобы по памяти нельзя было восстановить выданные значения.
+     */
+    void wipe() {
+        Arrays.fill(buffer, 0, position, (byte) 0);
+    }
+
+    /**
+     * Возвращает случайное число из диапазона, отбрасывая значения за пределом.
+     *
+     * @param bound граница.
+     * @param width количество байтов на значение.
+     * @param limit предел: наибольшее кратное границы, не превышающее диапазон значений.
+     * @return случайное число.
+     */
+    private int nextInt(int bound, int width, long limit) {
+        long value;
+        do {
+            if (position + width > BUFFER_SIZE) {
+                refill();
+            }
+            value = 0;
+            for (int i = 0; i < width; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+        } while (value >= limit);
+        return (int) (value % bound);
+    }
+
+    /**
+     * Заполняет буфер новыми случайными байтами.
+     */
+    private void refill() {
+        random.nextBytes(buffer);
+        position = 0;
+    }
+
+    /**
+     * Выбирает количество байтов на значение с наименьшим ожидаемым расходом байтов с учётом отбрасывания.
+     *
+     * @param bound граница.
+     * @return количество байтов от 1 до 4.
+     */
+    static int width(int bound) {
+        int best = 4;
+        double bestCost = Double.MAX_VALUE;
+        for (int width = 1; width <= 4; width++) {
+            long range = 1L << (8 * width);
+            if (range < bound) {
+                continue;
+            }
+            double cost = width * (double) range / limit(bound, width);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = width;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Вычисляет предел принимаемых значений: наибольшее кратное границы, не превышающее диапазон значений.
+     *
+     * @param bound граница.
+     * @param width количество байтов на значение.
+     * @return предел.
+     */
+    private static long limit(int bound, int width) {
+        long range = 1L << (8 * width);
+        return range - range % bound;
+    }
+}
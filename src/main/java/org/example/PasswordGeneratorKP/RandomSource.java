@@ -0,0 +1,19 @@
+package org.example.PasswordGeneratorKP;
+
+import java.security.SecureRandom;
+
+/**
+ * Источник криптографически стойких случайных чисел для генерации паролей.
+ * Реализации должны быть потокобезопасными: каждый поток получает генератор,
+ * который он может использовать без синхронизации с другими потоками.
+ */
+public interface RandomSource {
+
+    /**
+     * Возвращает генератор случайных чисел для текущего потока.
+     * Генератор нельзя передавать другим потокам.
+     *
+     * @return генератор случайных чисел.
+     */
+    SecureRandom current();
+}
@@ -0,0 +1,49 @@
+package org.example.PasswordGeneratorKP;
+
+/**
+ * Скрытие секретов в журнале.
+ * По умолчанию вместо пароля в журнал попадает только его длина. Полный вывод паролей
+ * для отладки включается системным свойством {@value #LOG_SECRETS_PROPERTY}{@code =true}.
+ */
+public final class SecretRedactor {
+
+    /**
+     * Системное свойство, разрешающее запись паролей в журнал.
+     */
+    public static final String LOG_SECRETS_PROPERTY = "passwordgenerator.log.secrets";
+
+    private static final boolean LOG_SECRETS = Boolean.getBoolean(LOG_SECRETS_PROPERTY);
+
+    private final CharSequence secret;
+
+    private SecretRedactor(CharSequence secret) {
+        this.secret = secret;
+    }
+
+    /**
+     * Оборачивает секрет для передачи в журнал в качестве параметра сообщения.
+     * Строка для журнала формируется только если сообщение действительно записывается.
+     *
+     * @param secret секрет или {@code null}.
+     * @return объект, строковое представление которого скрывает секрет.
+     */
+    public static Object redact(CharSequence secret) {
+        return new SecretRedactor(secret);
+    }
+
+    /**
+     * Возвращает секрет целиком, если запись секретов разрешена, иначе только его длину.
+     *
+     * @return строковое представление секрета для журнала.
+     */
+    @Override
+    public String toString() {
+        if (secret == null) {
+            return "null";
+        }
+        if (LOG_SECRETS) {
+            return secret.toString();
+        }
+        return "[скрыто, " + secret.length() + " символов]";
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Пул генераторов {@link SecureRandom} с отдельным экземпляром для каждого потока.
+ * Потоки не конкурируют за один генератор, поэтому генерация масштабируется с количеством потоков.
+ * Каждый генератор периодически пересевается после заданного количества обращений.
+ * <p>
+ * Пул с алгоритмом по умолчанию можно разделять между генераторами через {@link #shared()}:
+ * генераторы потоков создаются один раз на поток, а не для каждого генератора паролей.
+ */
+public class SecureRandomPool implements RandomSource {
+
+    private static final Logger logger = LogManager.getLogger(SecureRandomPool.class);
+
+    /**
+     * Количество обращений к генератору потока между пересевами по умолчанию.
+     */
+    public static final long DEFAULT_RESEED_INTERVAL = 1000000;
+
+    // Размер дополнительного зерна при пересеве, в байтах
+    private static final int SEED_SIZE = 32;
+
+    // Алгоритмы, наличие которых уже проверено созданием генератора
+    private static final Set<String> VALIDATED = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Пул с алгоритмом по умолчанию, создаваемый при первом обращении.
+     */
+    private static final class Shared {
+
+        static final SecureRandomPool INSTANCE = new SecureRandomPool();
+    }
+
+    /**
+     * Генератор потока и количество обращений к нему с последнего пересева.
+     */
+    private static final class Holder {
+
+        private final SecureRandom random;
+        private long uses;
+
+        Holder(SecureRandom random) {
+            this.random = random;
+        }
+    }
+
+    private final String algorithm;
+    private final long reseedInterval;
+    private final ThreadLocal<Holder> holders = ThreadLocal.withInitial(() -> new Holder(create()));
+
+    /**
+     * Конструктор пула с алгоритмом по умолчанию для платформы.
+     */
+    public SecureRandomPool() {
+        this(null, DEFAULT_RESEED_INTERVAL);
+    }
+
+    /**
+     * Конструктор пула с указанным алгоритмом.
+     * Алгоритм проверяется созданием генератора только при первом использовании в процессе.
+     *
+     * @param algorithm      алгоритм {@link SecureRandom} (например, {@code DRBG} или {@code NativePRNGNonBlocking})
+     *                       или {@code null} для алгоритма по умолчанию.
+     * @param reseedInterval количество обращений к генератору потока между пересевами или 0, чтобы не пересевать.
+     * @throws IllegalArgumentException если алгоритм не поддерживается.
+     */
+    public SecureRandomPool(String algorithm, long reseedInterval) {
+        this.algorithm = algorithm;
+        this.reseedInterval = reseedInterval;
+        // Алгоритм по умолчанию есть всегда; остальные проверяются один раз
+        if (algorithm != null && !VALIDATED.contains(algorithm)) {
+            create();
+            VALIDATED.add(algorithm);
+        }
+        logger.debug("Пул генераторов случайных чисел: алгоритм {}, пересев каждые {} обращений",
+                algorithm == null ? "по умолчанию" : algorithm, reseedInterval);
+    }
+
+    /**
+     * Возвращает общий пул с алгоритмом по умолчанию.
+     *
+     * @return общий пул генераторов.
+     */
+    public static SecureRandomPool shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Возвращает генератор текущего потока, пересевая его при достижении интервала пересева.
+     *
+     * @return генератор случайных чисел текущего потока.
+     */
+    @Override
+    public SecureRandom current() {
+        Holder holder = holders.get();
+        if (reseedInterval > 0 && ++holder.uses >= reseedInterval) {
+            holder.uses = 0;
+            reseed(holder.random);
+        }
+        return holder.random;
+    }
+
+    /**
+     * Возвращает алгоритм генераторов пула.
+     *
+     * @return алгоритм или {@code null}, если используется алгоритм по умолчанию.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Создаёт новый генератор с алгоритмом пула.
+     *
+     * @return генератор случайных чисел.
+     * @throws IllegalArgumentException если алгоритм не поддерживается.
+     */
+    private SecureRandom create() {
+        if (algorithm == null) {
+            return new SecureRandom();
+        }
+        try {
+            return SecureRandom.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Алгоритм генератора случайных чисел не поддерживается: " + algorithm, e);
+        }
+    }
+
+    /**
+     * Пересевает генератор: через {@link SecureRandom#reseed()}, если алгоритм это поддерживает,
+     * иначе добавлением нового зерна от источника энтропии генератора.
+     *
+     * @param random генератор случайных чисел.
+     */
+    private static void reseed(SecureRandom random) {
+        try {
+            random.reseed();
+        } catch (UnsupportedOperationException e) {
+            random.setSeed(random.generateSeed(SEED_SIZE));
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище учётных данных, разделённое по хешу логина на несколько файлов SQLite (шардов).
+ * <p>
+ * SQLite допускает только одного пишущего в файл, поэтому при массовом создании учётных записей
+ * единственная таблица {@code users} становится узким местом. Здесь у каждого шарда собственный
+ * {@link DatabaseManager} со своим подключением и свой поток записи: поиск и добавление по логину
+ * направляются в один шард, а пакетная запись распределяет строки по шардам и пишет их параллельно.
+ * <p>
+ * Номер шарда зависит от количества шардов, поэтому файлы шардов содержат его в имени
+ * ({@code database-2-of-4.db}); чтобы изменить количество шардов, данные переносятся
+ * методом {@link #copyFrom(DatabaseManager, DatabaseManager.DuplicatePolicy)}.
+ * <p>
+ * Методы работы с одним логином можно вызывать из нескольких потоков: обращения к шарду
+ * синхронизирует его {@link DatabaseManager}. Пакетные записи выполняются по одной: у хранилища
+ * один поток записи на шард, поэтому одновременный вызов ожидает завершения текущей пакетной записи.
+ */
+public class ShardedDatabaseManager implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(ShardedDatabaseManager.class);
+
+    // Размер порции пакетной записи по умолчанию
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    // Количество порций, ожидающих записи в каждый шард
+    private static final int QUEUE_CAPACITY = 4;
+
+    // Признак конца данных в очереди шарда
+    private static final List<Credential> END = new ArrayList<>(0);
+
+    private final DatabaseManager[] shards;
+    private final ExecutorService writers;
+
+    /**
+     * Конструктор хранилища. К базам данных не обращается: подключения открываются при первом использовании.
+     *
+     * @param baseFile        путь к файлу базы данных, от которого образуются имена файлов шардов.
+     * @param shardCount      количество шардов.
+     * @param journalMode     режим журнала.
+     * @param synchronousMode режим синхронизации.
+     * @throws IllegalArgumentException если количество шардов меньше 1.
+     */
+    public ShardedDatabaseManager(Path baseFile, int shardCount, DatabaseManager.JournalMode journalMode,
+                                  DatabaseManager.SynchronousMode synchronousMode) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Количество шардов должно быть не менее 1.");
+        }
+        shards = new DatabaseManager[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new DatabaseManager("jdbc:sqlite:" + shardFile(baseFile, i, shardCount), journalMode, synchronousMode);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(shardCount, r -> {
+            Thread thread = new Thread(r, "db-shard-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("ShardedDatabaseManager инициализирован: {} шардов, файл {}", shardCount, baseFile);
+    }
+
+    /**
+     * Возвращает путь к файлу шарда.
+     *
+     * @param baseFile   путь к файлу базы данных.
+     * @param index      номер шарда.
+     * @param shardCount количество шардов.
+     * @return путь к файлу шарда, например {@code database-0-of-4.db} для {@code database.db}.
+     */
+    public static Path shardFile(Path baseFile, int index, int shardCount) {
+        String name = baseFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return baseFile.resolveSibling(stem + "-" + index + "-of-" + shardCount + extension);
+    }
+
+    /**
+     * Возвращает количество шардов.
+     *
+     * @return количество шардов.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Возвращает номер шарда для логина. Распределение не зависит от запуска JVM,
+     * так как {@link String#hashCode()} определён спецификацией.
+     *
+     * @param login логин пользователя.
+     * @return номер шарда.
+     */
+    public int shardFor(String login) {
+        int h = login.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, shards.length);
+    }
+
+    /**
+     * Подключает хеширование сохраняемых паролей во всех шардах.
+     *
+     * @param passwordHasher объект хеширования или {@code null}, чтобы сохранять пароли открытым текстом.
+     */
+    public void setPasswordHasher(PasswordHasher passwordHasher) {
+        for (DatabaseManager shard : shards) {
+            shard.setPasswordHasher(passwordHasher);
+        }
+    }
+
+    /**
+     * Получает пароль по логину из шарда, которому принадлежит логин.
+     *
+     * @param login логин пользователя.
+     * @return пароль, если он найден, или null, если пользователя с таким логином нет.
+     */
+    public String getPasswordByLogin(String login) {
+        return shards[shardFor(login)].getPasswordByLogin(login);
+    }
+
+    /**
+     * Проверяет пароль пользователя в шарде, которому принадлежит логин.
+     *
+     * @param login    логин пользователя.
+     * @param password проверяемый пароль.
+     * @return {@code true}, если логин существует и пароль совпадает.
+     */
+    public boolean verifyPassword(String login, String password) {
+        return shards[shardFor(login)].verifyPassword(login, password);
+    }
+
+    /**
+     * Добавляет логин и пароль в шард, которому принадлежит логин.
+     *
+     * @param login    логин пользователя.
+     * @param password пароль пользователя.
+     * @return {@code true}, если строка добавлена; {@code false}, если логин уже существует или произошла ошибка.
+     */
+    public boolean addPasswordToDatabase(String login, String password) {
+        return shards[shardFor(login)].addPasswordToDatabase(login, password);
+    }
+
+    /**
+     * Пакетно записывает учётные данные порциями по умолчанию.
+     *
+     * @param credentials учётные данные.
+     * @param policy      способ обработки уже существующих логинов.
+     * @return объект {@link BulkInsertResult} с суммарными итогами записи.
+     */
+    public BulkInsertResult addPasswordsToDatabase(Iterable<Credential> credentials, DatabaseManager.DuplicatePolicy policy) {
+        return addPasswordsToDatabase(credentials.iterator(), policy, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Пакетно записывает учётные данные в шарды параллельно.
+     * Строки читаются из итератора в вызывающем потоке, распределяются по шардам порциями
+     * и записываются потоками шардов через {@link DatabaseManager#addPasswordsToDatabase(Iterator,
+     * DatabaseManager.DuplicatePolicy, int, java.util.function.BiConsumer, boolean)}, поэтому каждый шард
+     * фиксирует свои транзакции независимо. В памяти находится не более нескольких порций на шард.
+     * При {@link DatabaseManager.DuplicatePolicy#FAIL} ошибка прерывает запись только в тот шард, где она произошла;
+     * строки, не записанные в этот шард после ошибки, учитываются как ошибочные.
+     *
+     * @param credentials итератор учётных данных.
+     * @param policy      способ обработки уже существующих логинов.
+     * @param chunkSize   количество строк в одной транзакции шарда.
+     * @return объект {@link BulkInsertResult} с суммарными итогами записи.
+     */
+    public synchronized BulkInsertResult addPasswordsToDatabase(Iterator<Credential> credentials,
+                                                                DatabaseManager.DuplicatePolicy policy, int chunkSize) {
+        BulkWrite bulk = new BulkWrite(policy, chunkSize, false);
+        try {
+            while (credentials.hasNext()) {
+                bulk.add(credentials.next());
+            }
+        } catch (RuntimeException e) {
+            bulk.cancel();
+            throw e;
+        }
+        return bulk.finish();
+    }
+
+    /**
+     * Переносит все учётные данные из другой базы данных, распределяя их по шардам.
+     * Сохранённые значения паролей (в том числе хеши) переносятся без изменений, даже если подключено хеширование.
+     *
+     * @param source исходная база данных, например единственный файл database.db.
+     * @param policy способ обработки логинов, уже существующих в шардах.
+     * @return объект {@link BulkInsertResult} с суммарными итогами записи.
+     * @throws SQLException если произошла ошибка чтения исходной базы данных.
+     */
+    public synchronized BulkInsertResult copyFrom(DatabaseManager source, DatabaseManager.DuplicatePolicy policy)
+            throws SQLException {
+        logger.info("Перенос учётных данных в {} шардов", shards.length);
+        BulkWrite bulk = new BulkWrite(policy, DEFAULT_CHUNK_SIZE, true);
+        try {
+            source.forEachCredential(bulk::add);
+        } catch (SQLException | RuntimeException e) {
+            bulk.cancel();
+            throw e;
+        }
+        return bulk.finish();
+    }
+
+    /**
+     * Последовательно передаёт учётные данные всех шардов получателю.
+     *
+     * @param action получатель учётных данных.
+     * @return количество переданных строк.
+     * @throws SQLException если произошла ошибка чтения.
+     */
+    public long forEachCredential(Consumer<Credential> action) throws SQLException {
+        long count = 0;
+        for (DatabaseManager shard : shards) {
+            count += shard.forEachCredential(action);
+        }
+        return count;
+    }
+
+    /**
+     * Останавливает потоки записи и закрывает подключения ко всем шардам.
+     */
+    @Override
+    public void close() {
+        writers.shutdownNow();
+        for (DatabaseManager shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Возвращает менеджер базы данных шарда.
+     *
+     * @param index номер шарда.
+     * @return менеджер базы данных шарда.
+     */
+    DatabaseManager shard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * Одна пакетная запись: распределяет строки по очередям шардов и собирает итоги потоков записи.
+     */
+    private final class BulkWrite {
+
+        private final long startTime = System.nanoTime();
+        private final int chunkSize;
+        private final ShardQueue[] queues = new ShardQueue[shards.length];
+        private final List<Future<BulkInsertResult>> results = new ArrayList<>(shards.length);
+        private final List<List<Credential>> pending = new ArrayList<>(shards.length);
+
+        BulkWrite(DatabaseManager.DuplicatePolicy policy, int chunkSize, boolean preHashed) {
+            this.chunkSize = Math.max(1, chunkSize);
+            for (int i = 0; i < shards.length; i++) {
+                ShardQueue queue = new ShardQueue();
+                DatabaseManager shard = shards[i];
+                queues[i] = queue;
+                pending.add(new ArrayList<>(this.chunkSize));
+                results.add(writers.submit(() -> {
+                    try {
+                        return shard.addPasswordsToDatabase(queue, policy, this.chunkSize, null, preHashed);
+                    } finally {
+                        queue.done = true;
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Добавляет строку в порцию её шарда и передаёт заполненную порцию потоку записи.
+         *
+         * @param credential учётные данные.
+         */
+        void add(Credential credential) {
+            int index = shardFor(credential.getLogin());
+            List<Credential> chunk = pending.get(index);
+            chunk.add(credential);
+            if (chunk.size() >= chunkSize) {
+                queues[index].put(chunk);
+                pending.set(index, new ArrayList<>(chunkSize));
+            }
+        }
+
+        /**
+         * Передаёт неполные порции, завершает запись во всех шардах и суммирует итоги.
+         *
+         * @return объект {@link BulkInsertResult} с суммарными итогами записи.
+         */
+        BulkInsertResult finish() {
+            for (int i = 0; i < queues.length; i++) {
+                if (!pending.get(i).isEmpty()) {
+                    queues[i].put(pending.get(i));
+                }
+                queues[i].put(END);
+            }
+
+            long inserted = 0;
+            long skipped = 0;
+            long upserted = 0;
+            long failed = 0;
+            boolean aborted = false;
+            List<BulkInsertResult> shardResults = await();
+            for (int i = 0; i < queues.length; i++) {
+                BulkInsertResult result = shardResults.get(i);
+                inserted += result.getInserted();
+                skipped += result.getSkipped();
+                upserted += result.getUpserted();
+                // Строки, которые прерванный поток записи шарда уже не прочитал
+                failed += result.getFailed() + queues[i].unread();
+                aborted |= result.isAborted();
+            }
+            long generationTime = System.nanoTime() - startTime;
+            logger.info("Пакетное добавление в {} шардов завершено за {} наносекунд: добавлено {}, пропущено {}, заменено {}, ошибок {}",
+                    shards.length, generationTime, inserted, skipped, upserted, failed);
+            return new BulkInsertResult(inserted, skipped, upserted, failed, aborted, generationTime);
+        }
+
+        /**
+         * Завершает запись во всех шардах без передачи неполных порций.
+         */
+        void cancel() {
+            for (ShardQueue queue : queues) {
+                queue.put(END);
+            }
+            try {
+                await();
+            } catch (RuntimeException e) {
+                logger.error("Ошибка завершения пакетной записи в шарды: {}", e.getMessage());
+            }
+        }
+
+        /**
+         * Ожидает завершения потоков записи.
+         *
+         * @return итоги записи каждого шарда.
+         */
+        private List<BulkInsertResult> await() {
+            List<BulkInsertResult> list = new ArrayList<>(results.size());
+            for (Future<BulkInsertResult> future : results) {
+                try {
+                    list.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Ожидание записи в шарды прервано.", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Ошибка записи в шард.", e.getCause());
+                }
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Очередь порций одного шарда, которую поток записи читает как итератор строк.
+     */
+    private static final class ShardQueue implements Iterator<Credential> {
+
+        private final BlockingQueue<List<Credential>> chunks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private Iterator<Credential> current;
+        private boolean finished;
+
+        // Количество строк в порциях, отброшенных после завершения потока записи
+        private long dropped;
+
+        // Поток записи завершился (в том числе досрочно из-за ошибки) и больше не читает очередь
+        private volatile boolean done;
+
+        /**
+         * Передаёт порцию потоку записи. Если поток записи уже завершился, порция отбрасывается
+         * и её строки учитываются в {@link #unread()}.
+         *
+         * @param chunk порция строк или {@link #END}.
+         */
+        void put(List<Credential> chunk) {
+            try {
+                // Ожидание места в очереди с проверкой завершения потока записи
+                while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    if (done) {
+                        if (chunk != END) {
+                            dropped += chunk.size();
+                        }
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Передача строк в шард прервана.", e);
+            }
+        }
+
+        /**
+         * Возвращает количество строк, которые поток записи не прочитал: отброшенные порции,
+         * остаток текущей порции и порции, оставшиеся в очереди. Вызывается после завершения потока записи.
+         *
+         * @return количество непрочитанных строк.
+         */
+        long unread() {
+            long count = dropped;
+            if (current != null) {
+                while (current.hasNext()) {
+                    current.next();
+                    count++;
+                }
+            }
+            for (List<Credential> chunk : chunks) {
+                if (chunk != END) {
+                    count += chunk.size();
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!finished && (current == null || !current.hasNext())) {
+                try {
+                    List<Credential> chunk = chunks.take();
+                    if (chunk == END) {
+                        finished = true;
+                    } else {
+                        current = chunk.iterator();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Запись в шард прервана.", e);
+                }
+            }
+            return !finished;
+        }
+
+        @Override
+        public Credential next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Пакетная проверка надёжности сохранённых паролей.
+ * <p>
+ * Учётные данные передаются через {@link #accept(Credential)}, например из
+ * {@link DatabaseManager#forEachCredential(Consumer)} или {@link CredentialReader}, группируются в порции
+ * и оцениваются на пуле потоков. Массивы порций используются повторно, а оценка выполняется
+ * в рабочей области потока без создания объектов, поэтому память не зависит от количества паролей.
+ * Пароли, сохранённые в виде хешей, оценить нельзя: они только подсчитываются.
+ * <p>
+ * Методы {@link #accept(Credential)} и {@link #finish()} вызываются из одного потока.
+ */
+public class StrengthAudit implements Consumer<Credential>, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(StrengthAudit.class);
+
+    // Количество строк в порции
+    private static final int CHUNK_SIZE = 4096;
+
+    // Оценки, при которых логин попадает в список слабых
+    private static final int WEAK_SCORE = 1;
+
+    private final StrengthEstimator estimator;
+    private final int weakSampleSize;
+    private final ExecutorService workers;
+    private final Semaphore inFlight;
+    private final ConcurrentLinkedQueue<Credential[]> freeChunks = new ConcurrentLinkedQueue<>();
+    private final long startTime = System.nanoTime();
+
+    // Итоги проверки
+    private final AtomicLongArray scores = new AtomicLongArray(5);
+    private final AtomicLongArray patterns = new AtomicLongArray(PasswordStrength.Pattern.values().length);
+    private final LongAdder hashed = new LongAdder();
+    private final DoubleAdder effectiveBits = new DoubleAdder();
+    private final List<String> weakLogins = new ArrayList<>();
+    private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+    private final int permits;
+
+    private Credential[] chunk;
+    private int chunkLength;
+    private long elapsedNanos;
+
+    /**
+     * Конструктор проверки.
+     *
+     * @param estimator      оценка надёжности.
+     * @param threads        количество потоков оценки.
+     * @param weakSampleSize максимальное количество сохраняемых логинов со слабыми паролями.
+     * @throws IllegalArgumentException если количество потоков меньше 1.
+     */
+    public StrengthAudit(StrengthEstimator estimator, int threads, int weakSampleSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть не менее 1.");
+        }
+        this.estimator = estimator;
+        this.weakSampleSize = weakSampleSize;
+        this.permits = threads * 2;
+        this.inFlight = new Semaphore(permits);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "strength-audit-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunk = new Credential[CHUNK_SIZE];
+    }
+
+    /**
+     * Добавляет учётные данные в проверку.
+     *
+     * @param credential учётные данные.
+     */
+    @Override
+    public void accept(Credential credential) {
+        chunk[chunkLength++] = credential;
+        if (chunkLength == chunk.length) {
+            submit();
+        }
+    }
+
+    /**
+     * Дожидается оценки всех переданных паролей и останавливает потоки.
+     *
+     * @return эта проверка с итогами.
+     * @throws IllegalStateException если оценка завершилась ошибкой или ожидание прервано.
+     */
+    public StrengthAudit finish() {
+        if (chunkLength > 0) {
+            submit();
+        }
+        try {
+            inFlight.acquire(permits);
+            inFlight.release(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Проверка надёжности прервана.", e);
+        } finally {
+            workers.shutdown();
+        }
+        elapsedNanos = System.nanoTime() - startTime;
+        if (error.get() != null) {
+            throw new IllegalStateException("Ошибка проверки надёжности паролей.", error.get());
+        }
+        logger.info("Проверено паролей: {} за {} наносекунд, хешей: {}, по оценкам: {}",
+                getChecked(), elapsedNanos, getHashed(), scores);
+        return this;
+    }
+
+    /**
+     * Останавливает потоки оценки без ожидания.
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Возвращает количество оценённых паролей.
+     *
+     * @return количество паролей.
+     */
+    public long getChecked() {
+        long checked = 0;
+        for (int i = 0; i < scores.length(); i++) {
+            checked += scores.get(i);
+        }
+        return checked;
+    }
+
+    /**
+     * Возвращает количество паролей, сохранённых в виде хешей и поэтому не оценённых.
+     *
+     * @return количество хешей.
+     */
+    public long getHashed() {
+        return hashed.sum();
+    }
+
+    /**
+     * Возвращает количество паролей с оценкой.
+     *
+     * @param score оценка от 0 до 4.
+     * @return количество паролей.
+     */
+    public long getScoreCount(int score) {
+        return scores.get(score);
+    }
+
+    /**
+     * Возвращает количество паролей, в которых найден шаблон.
+     *
+     * @param pattern шаблон.
+     * @return количество паролей.
+     */
+    public long getPatternCount(PasswordStrength.Pattern pattern) {
+        return patterns.get(pattern.ordinal());
+    }
+
+    /**
+     * Возвращает среднюю эффективную энтропию оценённых паролей.
+     *
+     * @return средняя энтропия в битах.
+     */
+    public double getMeanEffectiveBits() {
+        long checked = getChecked();
+        return checked == 0 ? 0 : effectiveBits.sum() / checked;
+    }
+
+    /**
+     * Возвращает логины со слабыми паролями (оценка не выше 1), не более заданного количества.
+     *
+     * @return неизменяемый список логинов.
+     */
+    public List<String> getWeakLogins() {
+        synchronized (weakLogins) {
+            return Collections.unmodifiableList(new ArrayList<>(weakLogins));
+        }
+    }
+
+    /**
+     * Возвращает время проверки.
+     *
+     * @return время в наносекундах.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Возвращает скорость проверки.
+     *
+     * @return количество строк в секунду.
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : (getChecked() + getHashed()) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Передаёт заполненную порцию на оценку и берёт свободный массив для следующей.
+     */
+    private void submit() {
+        Credential[] full = chunk;
+        int length = chunkLength;
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Проверка надёжности прервана.", e);
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    score(full, length);
+                } catch (RuntimeException e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    freeChunks.offer(full);
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        Credential[] free = freeChunks.poll();
+        chunk = free == null ? new Credential[CHUNK_SIZE] : free;
+        chunkLength = 0;
+    }
+
+    /**
+     * Оценивает порцию и добавляет итоги порции к общим.
+     *
+     * @param credentials порция учётных данных.
+     * @param length      количество строк в порции.
+     */
+    private void score(Credential[] credentials, int length) {
+        StrengthEstimator.Scratch scratch = StrengthEstimator.scratch();
+        long[] localScores = new long[5];
+        long[] localPatterns = new long[patterns.length()];
+        long localHashed = 0;
+        double localBits = 0;
+        for (int i = 0; i < length; i++) {
+            Credential credential = credentials[i];
+            credentials[i] = null;
+            String password = credential.getPassword();
+            if (password == null || PasswordHasher.isHash(password)) {
+                localHashed++;
+                continue;
+            }
+            estimator.analyze(password, scratch);
+            int score = PasswordStrength.score(scratch.effectiveBits());
+            localScores[score]++;
+            localBits += scratch.effectiveBits();
+            int mask = scratch.patterns();
+            for (int p = 0; p < localPatterns.length; p++) {
+                if ((mask & (1 << p)) != 0) {
+                    localPatterns[p]++;
+                }
+            }
+            if (score <= WEAK_SCORE && weakSampleSize > 0) {
+                synchronized (weakLogins) {
+                    if (weakLogins.size() < weakSampleSize) {
+                        weakLogins.add(credential.getLogin());
+                    }
+                }
+            }
+        }
+        for (int s = 0; s < localScores.length; s++) {
+            scores.addAndGet(s, localScores[s]);
+        }
+        for (int p = 0; p < localPatterns.length; p++) {
+            patterns.addAndGet(p, localPatterns[p]);
+        }
+        hashed.add(localHashed);
+        effectiveBits.add(localBits);
+    }
+}
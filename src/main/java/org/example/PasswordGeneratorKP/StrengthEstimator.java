@@ -0,0 +1,461 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Оценка надёжности паролей по энтропии набора символов и найденным шаблонам.
+ * <p>
+ * Пароль разбивается на участки с наименьшей суммарной стоимостью подбора в битах (динамическое
+ * программирование по позициям): участок — либо отдельный символ ценой log2 размера набора,
+ * либо шаблон — слово из словаря (с учётом регистра, замен вида {@code p@ssw0rd} и набора
+ * в другой раскладке, например {@code ghbdtn}), последовательность, повтор или ряд клавиатуры.
+ * Словарь распространённых паролей загружается из ресурса {@value #WORDLIST_RESOURCE}
+ * в компактное префиксное дерево {@link WordTrie}.
+ * <p>
+ * Оценка не создаёт объектов на пароль, кроме результата {@link PasswordStrength}: рабочие массивы
+ * хранятся в потоке и используются повторно. Шаблоны ищутся в первых {@value #MAX_ANALYZED_LENGTH}
+ * символах, остальные символы учитываются по энтропии набора. Объект потокобезопасен.
+ */
+public final class StrengthEstimator {
+
+    private static final Logger logger = LogManager.getLogger(StrengthEstimator.class);
+
+    /**
+     * Ресурс со словарём распространённых паролей.
+     */
+    public static final String WORDLIST_RESOURCE = "/wordlist.txt";
+
+    /**
+     * Максимальная длина начала пароля, в котором ищутся шаблоны.
+     */
+    public static final int MAX_ANALYZED_LENGTH = 4096;
+
+    // Минимальная длина шаблона
+    private static final int MIN_PATTERN_LENGTH = 3;
+
+    // Классы символов и их размеры
+    private static final int LATIN_LOWER = 0;
+    private static final int LATIN_UPPER = 1;
+    private static final int CYRILLIC_LOWER = 2;
+    private static final int CYRILLIC_UPPER = 3;
+    private static final int DIGIT = 4;
+    private static final int SPECIAL = 5;
+    private static final int OTHER_ASCII = 6;
+    private static final int OTHER = 7;
+    private static final int[] CLASS_SIZES = {26, 26, 33, 33, 10, PasswordPolicy.SPECIAL_CHARS.length(),
+            33 - PasswordPolicy.SPECIAL_CHARS.length(), 100};
+
+    // Способы сравнения со словарём
+    private static final int MODE_PLAIN = 0;
+    private static final int MODE_LEET = 1;
+    private static final int MODE_LAYOUT = 2;
+
+    // Замены символов, похожих на буквы
+    private static final String LEET_FROM = "@4301!$57|";
+    private static final String LEET_TO = "aaeoiisstl";
+
+    // Соответствие клавиш латинской и русской раскладок
+    private static final String LAYOUT_LATIN = "`qwertyuiop[]asdfghjkl;'zxcvbnm,.";
+    private static final String LAYOUT_CYRILLIC = "ёйцукенгшщзхъфывапролджэячсмитьбю";
+
+    // Ряды клавиатуры
+    private static final String[] KEYBOARD_ROWS = {"1234567890-=", "qwertyuiop[]", "asdfghjkl;'", "zxcvbnm,./",
+            "йцукенгшщзхъ", "фывапролджэ", "ячсмитьбю"};
+    private static final int KEYBOARD_KEYS = Arrays.stream(KEYBOARD_ROWS).mapToInt(String::length).sum();
+
+    // Ряд и позиция клавиши для каждого символа (ряд * 256 + позиция) или -1
+    private static final int[] KEY_POSITIONS = new int['ё' + 1];
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    static {
+        Arrays.fill(KEY_POSITIONS, -1);
+        for (int row = 0; row < KEYBOARD_ROWS.length; row++) {
+            for (int pos = 0; pos < KEYBOARD_ROWS[row].length(); pos++) {
+                KEY_POSITIONS[KEYBOARD_ROWS[row].charAt(pos)] = row * 256 + pos;
+            }
+        }
+    }
+
+    private final WordTrie words;
+
+    /**
+     * Конструктор оценки со своим словарём.
+     *
+     * @param words слова по убыванию частоты; регистр не учитывается.
+     */
+    public StrengthEstimator(List<String> words) {
+        List<String> normalized = new ArrayList<>(words.size());
+        for (String word : words) {
+            normalized.add(word.toLowerCase());
+        }
+        this.words = new WordTrie(normalized);
+    }
+
+    /**
+     * Возвращает оценку со словарём из ресурса приложения. Словарь загружается при первом вызове.
+     *
+     * @return общая оценка надёжности.
+     */
+    public static StrengthEstimator get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Оценивает надёжность пароля.
+     *
+     * @param password пароль.
+     * @return оценка надёжности.
+     */
+    public PasswordStrength estimate(CharSequence password) {
+        Scratch scratch = SCRATCH.get();
+        analyze(password, scratch);
+        return new PasswordStrength(password.length(), scratch.charsetSize, scratch.entropyBits,
+                scratch.effectiveBits, scratch.patterns);
+    }
+
+    /**
+     * Возвращает рабочую область текущего потока.
+     *
+     * @return рабочая область.
+     */
+    static Scratch scratch() {
+        return SCRATCH.get();
+    }
+
+    /**
+     * Оценивает надёжность пароля без создания объектов и записывает результат в рабочую область.
+     *
+     * @param password пароль.
+     * @param scratch  рабочая область текущего потока.
+     */
+    void analyze(CharSequence password, Scratch scratch) {
+        int length = password.length();
+        int classes = 0;
+        for (int i = 0; i < length; i++) {
+            classes |= 1 << charClass(password.charAt(i));
+        }
+        int charsetSize = 0;
+        for (int c = 0; c < CLASS_SIZES.length; c++) {
+            if ((classes & (1 << c)) != 0) {
+                charsetSize += CLASS_SIZES[c];
+            }
+        }
+        double charBits = charsetSize == 0 ? 0 : log2(charsetSize);
+        scratch.charsetSize = charsetSize;
+        scratch.entropyBits = length * charBits;
+
+        int n = Math.min(length, MAX_ANALYZED_LENGTH);
+        char[] lower = scratch.lower;
+        double[] bits = scratch.bits;
+        int[] masks = scratch.masks;
+        for (int i = 0; i < n; i++) {
+            lower[i] = Character.toLowerCase(password.charAt(i));
+        }
+        bits[0] = 0;
+        masks[0] = 0;
+        Arrays.fill(bits, 1, n + 1, Double.MAX_VALUE);
+
+        for (int i = 0; i < n; i++) {
+            double base = bits[i];
+            relax(scratch, i + 1, base + charBits, masks[i]);
+            if (n - i < MIN_PATTERN_LENGTH) {
+                continue;
+            }
+            matchDictionary(password, scratch, i, n, MODE_PLAIN);
+            matchDictionary(password, scratch, i, n, MODE_LEET);
+            matchDictionary(password, scratch, i, n, MODE_LAYOUT);
+            matchRuns(scratch, i, n, charBits);
+            matchKeyboard(scratch, i, n);
+        }
+
+        scratch.effectiveBits = Math.min(scratch.entropyBits, bits[n] + (length - n) * charBits);
+        scratch.patterns = masks[n];
+    }
+
+    /**
+     * Ищет слова словаря, начинающиеся в позиции, и обновляет стоимость их концов.
+     *
+     * @param password исходный пароль (для учёта регистра).
+     * @param scratch  рабочая область.
+     * @param start    начальная позиция.
+     * @param n        длина анализируемой части.
+     * @param mode     способ сравнения.
+     */
+    private void matchDictionary(CharSequence password, Scratch scratch, int start, int n, int mode) {
+        char[] lower = scratch.lower;
+        int node = WordTrie.ROOT;
+        boolean changed = false;
+        int upper = 0;
+        boolean firstUpper = false;
+        int end = Math.min(n, start + words.maxLength());
+        for (int j = start; j < end; j++) {
+            char c = lower[j];
+            char mapped = mode == MODE_LEET ? leet(c) : mode == MODE_LAYOUT ? switchLayout(c) : c;
+            if (mapped == 0) {
+                return;
+            }
+            changed |= mapped != c;
+            node = words.child(node, mapped);
+            if (node == WordTrie.NONE) {
+                return;
+            }
+            if (password.charAt(j) != c) {
+                upper++;
+                firstUpper |= j == start;
+            }
+            int rank = words.rank(node);
+            int matched = j - start + 1;
+            if (rank == 0 || matched < MIN_PATTERN_LENGTH || (mode != MODE_PLAIN && !changed)) {
+                continue;
+            }
+            double cost = log2(rank);
+            if (upper > 0) {
+                cost += upper == matched || (upper == 1 && firstUpper) ? 1 : 2;
+            }
+            if (mode != MODE_PLAIN) {
+                cost += 1;
+            }
+            relax(scratch, j + 1, scratch.bits[start] + Math.max(1, cost), scratch.masks[start] | bit(PasswordStrength.Pattern.DICTIONARY));
+        }
+    }
+
+    /**
+     * Ищет последовательности и повторы, начинающиеся в позиции.
+     *
+     * @param scratch  рабочая область.
+     * @param start    начальная позиция.
+     * @param n        длина анализируемой части.
+     * @param charBits стоимость одного символа в битах.
+     */
+    private static void matchRuns(Scratch scratch, int start, int n, double charBits) {
+        char[] lower = scratch.lower;
+        double base = scratch.bits[start];
+        int mask = scratch.masks[start];
+
+        int j = start + 1;
+        while (j < n && lower[j] == lower[start]) {
+            j++;
+            if (j - start >= MIN_PATTERN_LENGTH) {
+                relax(scratch, j, base + charBits + log2(j - start), mask | bit(PasswordStrength.Pattern.REPEAT));
+            }
+        }
+
+        int step = lower[start + 1] - lower[start];
+        if ((step == 1 || step == -1) && Character.isLetterOrDigit(lower[start])) {
+            int classBits = CLASS_SIZES[charClass(lower[start])];
+            j = start + 1;
+            while (j < n && lower[j] - lower[j - 1] == step && charClass(lower[j]) == charClass(lower[start])) {
+                j++;
+                if (j - start >= MIN_PATTERN_LENGTH) {
+                    relax(scratch, j, base + log2(classBits) + log2(j - start) + (step < 0 ? 1 : 0),
+                            mask | bit(PasswordStrength.Pattern.SEQUENCE));
+                }
+            }
+        }
+    }
+
+    /**
+     * Ищет соседние клавиши одного ряда клавиатуры, начинающиеся в позиции.
+     *
+     * @param scratch рабочая область.
+     * @param start   начальная позиция.
+     * @param n       длина анализируемой части.
+     */
+    private static void matchKeyboard(Scratch scratch, int start, int n) {
+        char[] lower = scratch.lower;
+        int first = keyPosition(lower[start]);
+        int second = keyPosition(lower[start + 1]);
+        if (first < 0 || second < 0 || (second - first != 1 && second - first != -1)) {
+            return;
+        }
+        int step = second - first;
+        double base = scratch.bits[start] + log2(KEYBOARD_KEYS) + (step < 0 ? 1 : 0);
+        int mask = scratch.masks[start] | bit(PasswordStrength.Pattern.KEYBOARD);
+        int previous = second;
+        for (int j = start + 2; j < n; j++) {
+            int position = keyPosition(lower[j]);
+            if (position < 0 || position - previous != step) {
+                return;
+            }
+            previous = position;
+            relax(scratch, j + 1, base + log2(j + 1 - start), mask);
+        }
+    }
+
+    /**
+     * Уменьшает стоимость покрытия начала пароля до позиции, если найден более дешёвый вариант.
+     *
+     * @param scratch рабочая область.
+     * @param end     позиция конца участка.
+     * @param cost    стоимость покрытия в битах.
+     * @param mask    шаблоны на этом пути.
+     */
+    private static void relax(Scratch scratch, int end, double cost, int mask) {
+        if (cost < scratch.bits[end]) {
+            scratch.bits[end] = cost;
+            scratch.masks[end] = mask;
+        }
+    }
+
+    /**
+     * Возвращает класс символа.
+     *
+     * @param c символ.
+     * @return номер класса.
+     */
+    private static int charClass(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return LATIN_LOWER;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return LATIN_UPPER;
+        }
+        if (c >= '0' && c <= '9') {
+            return DIGIT;
+        }
+        if ((c >= 'а' && c <= 'я') || c == 'ё') {
+            return CYRILLIC_LOWER;
+        }
+        if ((c >= 'А' && c <= 'Я') || c == 'Ё') {
+            return CYRILLIC_UPPER;
+        }
+        if (PasswordPolicy.SPECIAL_CHARS.indexOf(c) >= 0) {
+            return SPECIAL;
+        }
+        return c >= ' ' && c < 0x7F ? OTHER_ASCII : OTHER;
+    }
+
+    /**
+     * Заменяет символ, похожий на букву, этой буквой.
+     *
+     * @param c символ в нижнем регистре.
+     * @return буква или исходный символ.
+     */
+    private static char leet(char c) {
+        int index = LEET_FROM.indexOf(c);
+        return index < 0 ? c : LEET_TO.charAt(index);
+    }
+
+    /**
+     * Возвращает символ, который набирается той же клавишей в другой раскладке.
+     *
+     * @param c символ в нижнем регистре.
+     * @return символ другой раскладки или 0, если клавиши нет в таблице.
+     */
+    private static char switchLayout(char c) {
+        int index = LAYOUT_LATIN.indexOf(c);
+        if (index >= 0) {
+            return LAYOUT_CYRILLIC.charAt(index);
+        }
+        index = LAYOUT_CYRILLIC.indexOf(c);
+        return index >= 0 ? LAYOUT_LATIN.charAt(index) : 0;
+    }
+
+    /**
+     * Возвращает ряд и позицию клавиши.
+     *
+     * @param c символ в нижнем регистре.
+     * @return ряд * 256 + позиция или -1.
+     */
+    private static int keyPosition(char c) {
+        return c < KEY_POSITIONS.length ? KEY_POSITIONS[c] : -1;
+    }
+
+    /**
+     * Возвращает битовую маску шаблона.
+     *
+     * @param pattern шаблон.
+     * @return битовая маска.
+     */
+    private static int bit(PasswordStrength.Pattern pattern) {
+        return 1 << pattern.ordinal();
+    }
+
+    /**
+     * Вычисляет двоичный логарифм.
+     *
+     * @param value число.
+     * @return двоичный логарифм.
+     */
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    /**
+     * Загружает словарь из ресурса приложения.
+     *
+     * @return оценка надёжности со словарём.
+     */
+    private static StrengthEstimator load() {
+        List<String> list = new ArrayList<>();
+        try (InputStream in = StrengthEstimator.class.getResourceAsStream(WORDLIST_RESOURCE)) {
+            if (in == null) {
+                logger.error("Словарь {} не найден, оценка выполняется без словаря", WORDLIST_RESOURCE);
+            } else {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        list.add(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось загрузить словарь " + WORDLIST_RESOURCE, e);
+        }
+        StrengthEstimator estimator = new StrengthEstimator(list);
+        logger.info("Загружен словарь оценки надёжности: {} слов, {} узлов", list.size(), estimator.words.nodeCount());
+        return estimator;
+    }
+
+    /**
+     * Ленивая загрузка общего словаря.
+     */
+    private static final class Holder {
+        private static final StrengthEstimator INSTANCE = load();
+    }
+
+    /**
+     * Рабочая область оценки одного потока: массивы динамического программирования и результат.
+     */
+    static final class Scratch {
+        private final char[] lower = new char[MAX_ANALYZED_LENGTH];
+        private final double[] bits = new double[MAX_ANALYZED_LENGTH + 1];
+        private final int[] masks = new int[MAX_ANALYZED_LENGTH + 1];
+        private int charsetSize;
+        private double entropyBits;
+        private double effectiveBits;
+        private int patterns;
+
+        /**
+         * Возвращает эффективную энтропию последнего пароля.
+         *
+         * @return эффективная энтропия в битах.
+         */
+        double effectiveBits() {
+            return effectiveBits;
+        }
+
+        /**
+         * Возвращает битовую маску шаблонов последнего пароля.
+         *
+         * @return битовая маска по {@link PasswordStrength.Pattern#ordinal()}.
+         */
+        int patterns() {
+            return patterns;
+        }
+    }
+}
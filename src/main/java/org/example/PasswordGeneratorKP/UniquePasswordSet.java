@@ -0,0 +1,171 @@
+package org.example.PasswordGeneratorKP;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Множество выданных паролей одной политики и длины для генерации без повторов.
+ * <p>
+ * Пароли хранятся в виде 32-битных отпечатков во {@link FingerprintSet} вне кучи, то есть по несколько
+ * байтов на пароль. Если все пароли политики и длины помещаются в 32 бита (PIN-коды, короткие коды),
+ * отпечаток — это номер пароля, и совпадение отпечатков означает совпадение паролей.
+ * Иначе отпечаток — хеш пароля: новый пароль с тем же отпечатком, что у выданного, тоже считается
+ * повтором и генерируется заново, поэтому уникальность сохраняется в любом случае.
+ * <p>
+ * Множество можно заранее заполнить уже выданными паролями, например из базы данных.
+ * Множество не потокобезопасно.
+ */
+public class UniquePasswordSet {
+
+    private final PasswordPolicy policy;
+    private final int length;
+    private final long keyspace;
+    private final FingerprintSet fingerprints;
+
+    // Номер каждого символа в общем наборе или -1, если символ не входит в набор
+    private final int[] indices;
+    private final boolean exact;
+
+    /**
+     * Конструктор множества.
+     *
+     * @param policy       политика генерации.
+     * @param length       длина паролей.
+     * @param expectedSize ожидаемое количество паролей, включая уже выданные.
+     * @throws IllegalArgumentException если ожидаемое количество слишком велико.
+     */
+    public UniquePasswordSet(PasswordPolicy policy, int length, long expectedSize) {
+        this.policy = policy;
+        this.length = length;
+        this.keyspace = policy.keyspace(length);
+        this.fingerprints = new FingerprintSet(expectedSize);
+
+        char[] charset = policy.table().charset();
+        char max = 0;
+        for (char c : charset) {
+            max = (char) Math.max(max, c);
+        }
+        indices = new int[max + 1];
+        Arrays.fill(indices, -1);
+        for (int i = 0; i < charset.length; i++) {
+            indices[charset[i]] = i;
+        }
+
+        // Номер пароля помещается в 32 бита без нуля, если charset.length^length < 2^32
+        long combinations = 1;
+        for (int i = 0; i < length && combinations <= 0xFFFFFFFFL; i++) {
+            combinations *= charset.length;
+        }
+        exact = combinations < 0xFFFFFFFFL;
+    }
+
+    /**
+     * Возвращает политику генерации.
+     *
+     * @return политика генерации.
+     */
+    public PasswordPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Возвращает длину паролей.
+     *
+     * @return длина паролей.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Возвращает количество различных паролей политики и длины.
+     *
+     * @return количество паролей или {@link Long#MAX_VALUE}, если их не меньше.
+     */
+    public long getKeyspace() {
+        return keyspace;
+    }
+
+    /**
+     * Возвращает количество выданных паролей.
+     *
+     * @return количество паролей.
+     */
+    public long size() {
+        return fingerprints.size();
+    }
+
+    /**
+     * Возвращает объём памяти вне кучи, занятый множеством.
+     *
+     * @return объём памяти в байтах.
+     */
+    public long getMemoryBytes() {
+        return fingerprints.memoryBytes();
+    }
+
+    /**
+     * Добавляет выданный пароль. Пароли другой длины или с символами вне набора политики
+     * не могут совпасть со сгенерированными и пропускаются.
+     *
+     * @param password пароль.
+     * @return {@code true}, если пароль добавлен, и {@code false}, если он уже был или пропущен.
+     */
+    public boolean add(CharSequence password) {
+        if (password.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c >= indices.length || indices[c] < 0) {
+                return false;
+            }
+        }
+        return fingerprints.add(exact ? index(password) : hash(password));
+    }
+
+    /**
+     * Добавляет сгенерированный пароль, если он ещё не был выдан.
+     *
+     * @param password символы пароля; все символы входят в набор политики.
+     * @return {@code true}, если пароль добавлен.
+     */
+    boolean add(char[] password) {
+        CharBuffer chars = CharBuffer.wrap(password, 0, length);
+        return fingerprints.add(exact ? index(chars) : hash(chars));
+    }
+
+    /**
+     * Вычисляет номер пароля в системе счисления по основанию размера набора, увеличенный на 1.
+     *
+     * @param password пароль.
+     * @return ненулевой отпечаток.
+     */
+    private int index(CharSequence password) {
+        int base = policy.getCharsetSize();
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = value * base + indices[password.charAt(i)];
+        }
+        return (int) (value + 1);
+    }
+
+    /**
+     * Вычисляет ненулевой 32-битный хеш пароля (FNV-1a с финальным перемешиванием).
+     *
+     * @param password пароль.
+     * @return ненулевой отпечаток.
+     */
+    private int hash(CharSequence password) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            hash ^= password.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        int fingerprint = (int) (hash ^ (hash >>> 32));
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+}
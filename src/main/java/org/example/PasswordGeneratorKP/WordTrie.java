@@ -0,0 +1,168 @@
+package org.example.PasswordGeneratorKP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Неизменяемое префиксное дерево слов в плоских массивах.
+ * <p>
+ * Дети каждого узла лежат подряд и упорядочены по символу, поэтому переход по символу —
+ * двоичный поиск в небольшом диапазоне, а всё дерево занимает несколько массивов примитивов
+ * без объектов на каждый узел. Для каждого слова хранится его ранг (номер в словаре, начиная с 1).
+ * Дерево потокобезопасно.
+ */
+final class WordTrie {
+
+    /**
+     * Корневой узел.
+     */
+    static final int ROOT = 0;
+
+    /**
+     * Признак отсутствия перехода.
+     */
+    static final int NONE = -1;
+
+    // Символ перехода в узел, диапазон детей узла и ранг слова, оканчивающегося в узле (0 — нет слова)
+    private final char[] labels;
+    private final int[] childStart;
+    private final int[] childEnd;
+    private final int[] ranks;
+    private final int size;
+    private final int maxLength;
+
+    /**
+     * Строит дерево по словам в порядке ранга. Повторные слова сохраняют наименьший ранг.
+     *
+     * @param words слова в нижнем регистре.
+     */
+    WordTrie(List<String> words) {
+        // Временное дерево с упорядоченными детьми, которое затем укладывается в массивы в ширину
+        Node root = new Node();
+        int rank = 0;
+        int longest = 0;
+        for (String word : words) {
+            rank++;
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+            }
+            if (node.rank == 0) {
+                node.rank = rank;
+            }
+            longest = Math.max(longest, word.length());
+        }
+
+        List<Node> order = new ArrayList<>();
+        List<Character> edges = new ArrayList<>();
+        order.add(root);
+        edges.add('\0');
+        for (int i = 0; i < order.size(); i++) {
+            for (var entry : order.get(i).children.entrySet()) {
+                order.add(entry.getValue());
+                edges.add(entry.getKey());
+            }
+        }
+
+        int count = order.size();
+        labels = new char[count];
+        childStart = new int[count];
+        childEnd = new int[count];
+        ranks = new int[count];
+        int next = 1;
+        for (int i = 0; i < count; i++) {
+            Node node = order.get(i);
+            labels[i] = edges.get(i);
+            ranks[i] = node.rank;
+            childStart[i] = next;
+            next += node.children.size();
+            childEnd[i] = next;
+        }
+        size = rank;
+        maxLength = longest;
+    }
+
+    /**
+     * Возвращает узел, в который ведёт переход по символу.
+     *
+     * @param node узел.
+     * @param c    символ.
+     * @return узел или {@link #NONE}, если перехода нет.
+     */
+    int child(int node, char c) {
+        int low = childStart[node];
+        int high = childEnd[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Возвращает ранг слова, оканчивающегося в узле.
+     *
+     * @param node узел.
+     * @return ранг от 1 или 0, если в узле слово не оканчивается.
+     */
+    int rank(int node) {
+        return ranks[node];
+    }
+
+    /**
+     * Проверяет, есть ли слово в дереве.
+     *
+     * @param word слово.
+     * @return ранг слова или 0, если слова нет.
+     */
+    int find(CharSequence word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length() && node != NONE; i++) {
+            node = child(node, word.charAt(i));
+        }
+        return node == NONE ? 0 : ranks[node];
+    }
+
+    /**
+     * Возвращает количество слов, включая повторы.
+     *
+     * @return количество слов.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает длину самого длинного слова.
+     *
+     * @return длина слова.
+     */
+    int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Возвращает количество узлов дерева.
+     *
+     * @return количество узлов.
+     */
+    int nodeCount() {
+        return labels.length;
+    }
+
+    /**
+     * Узел временного дерева при построении.
+     */
+    private static final class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private int rank;
+    }
+}
@@ -0,0 +1,254 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для класса {@link CLI}.
+ * Каждая команда запускается через {@link CLI#run(String[])} с проверкой кода завершения:
+ * 0 — успех, 1 — ошибка выполнения, 2 — ошибка в аргументах.
+ */
+public class CLITest {
+
+    /**
+     * Логгер для записи результатов тестов.
+     */
+    private static final Logger logger = LogManager.getLogger(CLITest.class);
+
+    /**
+     * Временный каталог для файлов базы данных и выгрузок.
+     */
+    @TempDir
+    Path tempDir;
+
+    // Вывод последней выполненной команды
+    private String out;
+    private String err;
+
+    /**
+     * Выполняет команду, перехватывая стандартный вывод и вывод ошибок.
+     *
+     * @param args аргументы командной строки.
+     * @return код завершения команды.
+     */
+    private int run(String... args) {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        ByteArrayOutputStream outBuffer = new ByteArrayOutputStream();
+        ByteArrayOutputStream errBuffer = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(outBuffer, true, StandardCharsets.UTF_8));
+            System.setErr(new PrintStream(errBuffer, true, StandardCharsets.UTF_8));
+            return CLI.run(args);
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+            out = outBuffer.toString(StandardCharsets.UTF_8);
+            err = errBuffer.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Возвращает URL временной базы данных.
+     *
+     * @param name имя файла базы данных.
+     * @return URL базы данных SQLite.
+     */
+    private String db(String name) {
+        return "jdbc:sqlite:" + tempDir.resolve(name);
+    }
+
+    /**
+     * Проверяет распознавание команд консольного режима.
+     */
+    @Test
+    public void testIsCommand() {
+        for (String command : List.of(CLI.COMMAND_GENERATE, CLI.COMMAND_SERVE, CLI.COMMAND_LOAD_TEST, CLI.COMMAND_EXPORT,
+                CLI.COMMAND_IMPORT, CLI.COMMAND_RESHARD, CLI.COMMAND_AUDIT)) {
+            assertTrue(CLI.isCommand(command), "Команда должна распознаваться: " + command);
+        }
+        assertFalse(CLI.isCommand("--length"), "Параметр не является командой");
+        assertFalse(CLI.isCommand("unknown"), "Неизвестная строка не является командой");
+
+        logger.info("testIsCommand: Команды распознаются корректно.");
+    }
+
+    /**
+     * Проверяет генерацию в стандартный вывод, в файл CSV с сохранением в базу данных и ошибки в аргументах.
+     *
+     * @throws Exception если произошла ошибка чтения файла.
+     */
+    @Test
+    public void testGenerate() throws Exception {
+        assertEquals(0, run("generate", "--count", "3", "--length", "10", "--ascii"));
+        String[] lines = out.split("\n");
+        assertEquals(3, lines.length, "Должно быть выведено три пароля");
+        for (String line : lines) {
+            assertEquals(10, line.length(), "Пароль должен иметь заданную длину");
+        }
+
+        Path csv = tempDir.resolve("users.csv");
+        assertEquals(0, run("generate", "--count", "20", "--length", "16", "--uppercase", "--digits", "--special",
+                "--format", "csv", "--output", csv.toString(), "--login-prefix", "u", "--store", "--db", db("users.db"), "--unique"));
+        List<String> rows = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals("login,password", rows.get(0), "Файл CSV должен начинаться с заголовка");
+        assertEquals(21, rows.size(), "Файл CSV должен содержать все пароли");
+        try (DatabaseManager manager = new DatabaseManager(db("users.db"), DatabaseManager.JournalMode.WAL,
+                DatabaseManager.SynchronousMode.NORMAL)) {
+            assertEquals(20, manager.forEachCredential(credential -> { }), "Пароли должны быть сохранены в базу данных");
+            assertEquals(rows.get(1).substring(rows.get(1).indexOf(',') + 1), manager.getPasswordByLogin("u1"),
+                    "Сохранённый пароль должен совпадать с выведенным");
+        }
+
+        // Повторное сохранение в ту же базу данных: логины u1..u20 заняты, выводятся только новые u21..u25
+        assertEquals(1, run("generate", "--count", "25", "--length", "16", "--format", "csv", "--login-prefix", "u",
+                "--store", "--db", db("users.db")), "Существующие логины должны приводить к ошибке");
+        assertTrue(err.contains("(20)") && err.contains("u1,") && err.contains("u20"), "Ошибка должна называть пропущенные логины: " + err);
+        String[] printed = out.split("\n");
+        assertEquals(6, printed.length, "Должны быть выведены только сохранённые пароли: " + out);
+        try (DatabaseManager manager = new DatabaseManager(db("users.db"), DatabaseManager.JournalMode.WAL,
+                DatabaseManager.SynchronousMode.NORMAL)) {
+            assertEquals(rows.get(1).substring(rows.get(1).indexOf(',') + 1), manager.getPasswordByLogin("u1"),
+                    "Пароль существующего логина не должен меняться");
+            for (int i = 1; i < printed.length; i++) {
+                String login = printed[i].substring(0, printed[i].indexOf(','));
+                assertTrue(Integer.parseInt(login.substring(1)) > 20, "Должен выводиться только новый логин: " + login);
+                assertEquals(printed[i].substring(printed[i].indexOf(',') + 1), manager.getPasswordByLogin(login),
+                        "Выведенный пароль должен совпадать с сохранённым");
+            }
+        }
+
+        assertEquals(0, run("generate", "--help"));
+        assertTrue(out.contains("Использование"), "Должна быть выведена справка");
+
+        assertEquals(2, run("generate", "--bogus"));
+        assertTrue(err.contains("--bogus"), "Ошибка должна называть неизвестный параметр");
+        assertEquals(2, run("generate", "--count"), "Параметр без значения является ошибкой в аргументах");
+        assertEquals(2, run("generate", "--count", "many"), "Нечисловое значение является ошибкой в аргументах");
+        assertEquals(2, run("generate", "--count", "-1"), "Отрицательное количество является ошибкой в аргументах");
+        assertEquals(2, run("generate", "--hash"), "--hash без --store является ошибкой в аргументах");
+        assertEquals(2, run("generate", "--format", "xml"), "Неизвестный формат является ошибкой в аргументах");
+        assertEquals(1, run("generate", "--length", "2", "--uppercase", "--digits", "--special"),
+                "Слишком короткий пароль является ошибкой выполнения");
+
+        logger.info("testGenerate: Команда generate работает корректно.");
+    }
+
+    /**
+     * Проверяет, что с --unique --store пароли, уже сохранённые в базе данных, не выдаются повторно,
+     * а сочетание с хешами отклоняется.
+     *
+     * @throws Exception если произошла ошибка чтения базы данных.
+     */
+    @Test
+    public void testGenerateUnique() throws Exception {
+        // Пароли из одной строчной латинской буквы: всего 26 различных
+        assertEquals(0, run("generate", "--count", "20", "--length", "1", "--ascii", "--login-prefix", "a",
+                "--store", "--unique", "--db", db("unique.db")));
+        assertEquals(0, run("generate", "--count", "6", "--length", "1", "--ascii", "--login-prefix", "b",
+                "--store", "--unique", "--db", db("unique.db")));
+        Set<String> stored = new HashSet<>();
+        try (DatabaseManager manager = new DatabaseManager(db("unique.db"), DatabaseManager.JournalMode.WAL,
+                DatabaseManager.SynchronousMode.NORMAL)) {
+            assertEquals(26, manager.forEachCredential(credential -> stored.add(credential.getPassword())),
+                    "Все пароли должны быть сохранены");
+        }
+        assertEquals(26, stored.size(), "Сохранённые пароли не должны выдаваться повторно");
+        assertEquals(1, run("generate", "--count", "1", "--length", "1", "--ascii", "--login-prefix", "c",
+                "--store", "--unique", "--db", db("unique.db")), "Все различные пароли уже выданы");
+
+        assertEquals(2, run("generate", "--store", "--hash", "--unique", "--db", db("unique.db")),
+                "--unique с --hash является ошибкой в аргументах");
+        assertTrue(err.contains("--unique"), "Ошибка должна называть несовместимый параметр");
+        assertEquals(0, run("generate", "--count", "1", "--store", "--hash", "--hash-iterations", "1000",
+                "--login-prefix", "h", "--db", db("unique.db")));
+        assertEquals(1, run("generate", "--count", "1", "--length", "8", "--store", "--unique", "--db", db("unique.db")),
+                "Уникальность относительно сохранённых хешей проверить нельзя");
+        assertTrue(err.contains("хеш"), "Ошибка должна называть причину: " + err);
+
+        logger.info("testGenerateUnique: Сохранённые пароли не выдаются повторно.");
+    }
+
+    /**
+     * Проверяет выгрузку, загрузку, перенос в шарды и проверку надёжности, а также ошибки в их аргументах.
+     *
+     * @throws Exception если произошла ошибка работы с файлами.
+     */
+    @Test
+    public void testTransferCommands() throws Exception {
+        assertEquals(0, run("generate", "--count", "50", "--length", "16", "--uppercase", "--digits", "--special",
+                "--format", "csv", "--output", tempDir.resolve("generated.csv").toString(), "--store", "--db", db("source.db")));
+
+        Path binary = tempDir.resolve("users.bin");
+        assertEquals(0, run("export", "--output", binary.toString(), "--db", db("source.db")));
+        assertTrue(out.contains("Выгружено строк: 50"), "Должно быть выгружено 50 строк: " + out);
+
+        assertEquals(0, run("import", "--input", binary.toString(), "--db", db("target.db"), "--on-duplicate", "fail"));
+        assertTrue(out.contains("добавлено 50"), "Должно быть загружено 50 строк: " + out);
+        assertEquals(1, run("import", "--input", binary.toString(), "--db", db("target.db"), "--on-duplicate", "fail"),
+                "Повторная загрузка с --on-duplicate fail должна завершиться ошибкой");
+        assertEquals(1, run("import", "--input", tempDir.resolve("missing.bin").toString(), "--db", db("target.db")),
+                "Отсутствующий файл является ошибкой выполнения");
+
+        assertEquals(0, run("reshard", "--shards", "3", "--db", db("source.db"), "--target", tempDir.resolve("sharded.db").toString()));
+        assertTrue(out.contains("Перенесено строк: 50 в 3 шардов"), "Должно быть перенесено 50 строк: " + out);
+        assertTrue(Files.exists(tempDir.resolve("sharded-2-of-3.db")), "Должен быть создан файл последнего шарда");
+
+        assertEquals(0, run("audit", "--db", db("source.db"), "--threads", "2"));
+        assertTrue(out.contains("Проверено паролей: 50"), "Должны быть проверены все пароли: " + out);
+        assertEquals(0, run("audit", "--input", binary.toString(), "--show-weak", "5"));
+        assertTrue(out.contains("Проверено паролей: 50"), "Должны быть проверены все пароли из файла: " + out);
+
+        assertEquals(2, run("export", "--db", db("source.db")), "Выгрузка без --output является ошибкой в аргументах");
+        assertEquals(2, run("export", "--input", binary.toString()), "--input не относится к выгрузке");
+        assertEquals(2, run("import", "--output", binary.toString()), "--output не относится к загрузке");
+        assertEquals(2, run("import", "--input", binary.toString(), "--on-duplicate", "merge"),
+                "Неизвестный способ обработки дубликатов является ошибкой в аргументах");
+        assertEquals(2, run("reshard", "--db", db("source.db")), "Перенос без --shards является ошибкой в аргументах");
+        assertEquals(2, run("reshard", "--shards", "0"), "Количество шардов должно быть не менее 1");
+        assertEquals(2, run("audit", "--db", db("source.db"), "--input", binary.toString()),
+                "--db и --input нельзя указывать вместе");
+        assertEquals(2, run("audit", "--threads", "0"), "Количество потоков должно быть не менее 1");
+
+        logger.info("testTransferCommands: Команды export, import, reshard и audit работают корректно.");
+    }
+
+    /**
+     * Проверяет нагрузочный тест против запущенного HTTP-сервиса и ошибки в аргументах serve и loadtest.
+     *
+     * @throws Exception если HTTP-сервис не удалось запустить.
+     */
+    @Test
+    public void testLoadTest() throws Exception {
+        HttpService service = new HttpService(0, 2, 64);
+        service.start();
+        try {
+            assertEquals(0, run("loadtest", "--url", "http://localhost:" + service.getPort() + "/generate?length=12",
+                    "--concurrency", "2", "--requests", "50"));
+            assertTrue(service.getServedCount() >= 50, "Сервис должен обработать все запросы");
+        } finally {
+            service.stop(0);
+        }
+
+        assertEquals(2, run("loadtest", "--requests", "0"), "Количество запросов должно быть не менее 1");
+        assertEquals(2, run("loadtest", "--url"), "Параметр без значения является ошибкой в аргументах");
+        assertEquals(2, run("serve", "--workers", "0"), "Количество потоков должно быть не менее 1");
+        assertEquals(2, run("serve", "--pool", "1"), "Пул из одного пароля является ошибкой в аргументах");
+        assertEquals(2, run("serve", "--port"), "Параметр без значения является ошибкой в аргументах");
+
+        logger.info("testLoadTest: Команды loadtest и serve проверяют аргументы корректно.");
+    }
+}
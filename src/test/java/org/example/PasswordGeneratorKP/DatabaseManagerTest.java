@@ -0,0 +1,444 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для класса {@link DatabaseManager}.
+ * Каждый тест работает с отдельным временным файлом базы данных SQLite.
+ */
+public class DatabaseManagerTest {
+
+    /**
+     * Логгер для записи результатов тестов.
+     */
+    private static final Logger logger = LogManager.getLogger(DatabaseManagerTest.class);
+
+    /**
+     * Временный каталог для файлов базы данных.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Создаёт менеджер базы данных для временного файла.
+     *
+     * @return менеджер базы данных.
+     */
+    private DatabaseManager createManager() {
+        return new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("test.db"),
+                DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL);
+    }
+
+    /**
+     * Проверяет, что добавленный пароль находится по логину через одно долгоживущее подключение.
+     */
+    @Test
+    public void testAddAndGetPassword() {
+        try (DatabaseManager manager = createManager()) {
+            assertFalse(manager.isOpen(), "Подключение не должно открываться при создании менеджера");
+            assertNull(manager.getPasswordByLogin("user"), "Пароль для нового логина не должен быть найден");
+
+            manager.addPasswordToDatabase("user", "secret");
+            assertEquals("secret", manager.getPasswordByLogin("user"), "Пароль должен быть найден по логину");
+        }
+
+        logger.info("testAddAndGetPassword: Пароль добавлен и найден.");
+    }
+
+    /**
+     * Проверяет, что после закрытия подключение открывается заново при следующем обращении.
+     */
+    @Test
+    public void testReopenAfterClose() {
+        DatabaseManager manager = createManager();
+        manager.addPasswordToDatabase("user", "secret");
+        manager.close();
+        assertFalse(manager.isOpen(), "Подключение должно быть закрыто");
+
+        assertEquals("secret", manager.getPasswordByLogin("user"), "Данные должны сохраниться после переподключения");
+        assertTrue(manager.isOpen(), "Подключение должно быть открыто заново");
+        manager.close();
+
+        logger.info("testReopenAfterClose: Подключение открыто заново.");
+    }
+
+    /**
+     * Проверяет пакетную запись с пропуском, заменой и ошибкой на дубликатах.
+     */
+    @Test
+    public void testBulkInsertDuplicatePolicies() {
+        try (DatabaseManager manager = createManager()) {
+            manager.addPasswordToDatabase("user5", "old");
+
+            BulkInsertResult skip = manager.addPasswordsToDatabase(
+                    IntStream.range(0, 2500).mapToObj(i -> new Credential("user" + i, "p" + i)));
+            assertEquals(2499, skip.getInserted(), "Должны быть добавлены все новые логины");
+            assertEquals(1, skip.getSkipped(), "Существующий логин должен быть пропущен");
+            assertEquals("old", manager.getPasswordByLogin("user5"), "Существующий пароль не должен измениться");
+
+            List<DatabaseManager.InsertOutcome> outcomes = new ArrayList<>();
+            BulkInsertResult upsert = manager.addPasswordsToDatabase(List.of(new Credential("user5", "new"),
+                            new Credential("added", "a"), new Credential("added", "b")).iterator(),
+                    DatabaseManager.DuplicatePolicy.UPSERT, 10, (credential, outcome) -> outcomes.add(outcome));
+            assertEquals(2, upsert.getUpserted(), "Существующий логин и повтор в порции должны быть заменены");
+            assertEquals(1, upsert.getInserted(), "Новый логин должен считаться добавленным");
+            assertEquals(List.of(DatabaseManager.InsertOutcome.UPSERTED, DatabaseManager.InsertOutcome.INSERTED,
+                    DatabaseManager.InsertOutcome.UPSERTED), outcomes, "Результат каждой строки должен быть передан получателю");
+            assertEquals("new", manager.getPasswordByLogin("user5"), "Пароль должен быть заменён");
+            assertEquals("b", manager.getPasswordByLogin("added"), "Последняя строка порции должна заменить предыдущую");
+
+            outcomes.clear();
+            BulkInsertResult fail = manager.addPasswordsToDatabase(List.of(new Credential("fresh", "p"), new Credential("user1", "p"))
+                    .iterator(), DatabaseManager.DuplicatePolicy.FAIL, 10, (credential, outcome) -> outcomes.add(outcome));
+            assertTrue(fail.isAborted(), "Запись должна быть прервана на дубликате");
+            assertEquals(2, fail.getFailed(), "Вся порция должна быть отменена");
+            assertEquals(List.of(DatabaseManager.InsertOutcome.ROLLED_BACK, DatabaseManager.InsertOutcome.FAILED), outcomes,
+                    "Ошибка должна относиться только к конфликтующей строке");
+            assertNull(manager.getPasswordByLogin("fresh"), "Отменённая порция не должна попасть в базу данных");
+        }
+
+        logger.info("testBulkInsertDuplicatePolicies: Пакетная запись выполнена корректно.");
+    }
+
+    /**
+     * Проверяет, что кэш отвечает на повторные запросы, хранит отсутствие логина и обновляется при добавлении.
+     */
+    @Test
+    public void testLoginCache() {
+        try (DatabaseManager manager = createManager()) {
+            LoginCache cache = new LoginCache(2, 0);
+            manager.setLoginCache(cache);
+
+            assertNull(manager.getPasswordByLogin("user"), "Пароль для нового логина не должен быть найден");
+            assertNull(manager.getPasswordByLogin("user"), "Отсутствие логина должно браться из кэша");
+            assertEquals(1, cache.getHits(), "Повторный запрос должен попасть в кэш");
+
+            manager.addPasswordToDatabase("user", "secret");
+            assertEquals("secret", manager.getPasswordByLogin("user"), "Добавление должно обновить кэш");
+            assertEquals(2, cache.getHits(), "Запрос после добавления должен попасть в кэш");
+
+            manager.getPasswordByLogin("a");
+            manager.getPasswordByLogin("b");
+            assertEquals(2, cache.size(), "Размер кэша не должен превышать максимум");
+            assertEquals(1, cache.getEvictions(), "Самая старая запись должна быть вытеснена");
+        }
+
+        logger.info("testLoginCache: Кэш работает корректно.");
+    }
+
+    /**
+     * Проверяет, что индекс логинов строится по таблице, обновляется при добавлении и сохраняется в файл.
+     */
+    @Test
+    public void testLoginIndex() throws Exception {
+        Path indexFile = tempDir.resolve("logins.bloom");
+        try (DatabaseManager manager = createManager()) {
+            manager.addPasswordToDatabase("existing", "secret");
+            manager.enableLoginIndex(1000, 0.01, indexFile);
+
+            assertTrue(manager.loginExists("existing"), "Логин из таблицы должен быть найден");
+            assertFalse(manager.loginExists("missing"), "Отсутствующий логин не должен быть найден");
+
+            manager.addPasswordToDatabase("added", "secret");
+            assertTrue(manager.loginExists("added"), "Добавленный логин должен быть найден");
+        }
+
+        try (DatabaseManager manager = createManager()) {
+            manager.addPasswordToDatabase("later", "secret");
+            manager.enableLoginIndex(1000, 0.01, indexFile);
+            assertTrue(manager.loginExists("added"), "Логин из сохранённого индекса должен быть найден");
+            assertTrue(manager.loginExists("later"), "Строки после сохранения индекса должны быть досчитаны");
+
+            try (DatabaseManager other = createManager()) {
+                assertTrue(other.addPasswordToDatabase("external", "secret"), "Другое подключение должно добавить логин");
+            }
+            assertFalse(manager.loginExists("external"),
+                    "По умолчанию отрицательный ответ индекса не должен обращаться к базе данных");
+            manager.setLoginIndexRefreshInterval(0);
+            assertTrue(manager.loginExists("external"), "Логин, добавленный другим подключением, должен быть найден");
+            assertFalse(manager.addPasswordToDatabase("external", "again"), "Повторное добавление логина должно быть отклонено");
+
+            manager.setLoginIndexRefreshInterval(60_000);
+            try (DatabaseManager other = createManager()) {
+                other.addPasswordToDatabase("throttled", "secret");
+            }
+            assertFalse(manager.loginExists("throttled"), "Проверка изменений не должна выполняться чаще заданного интервала");
+        }
+
+        // Другой процесс удаляет последние строки и добавляет новые логины на освободившиеся rowid
+        try (DatabaseManager other = createManager(); DatabaseManager probe = createManager()) {
+            probe.enableLoginIndex(1000, 0.01, null);
+            probe.setLoginIndexRefreshInterval(0);
+            try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("test.db"));
+                 Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM users WHERE login IN ('later', 'external');");
+            }
+            other.addPasswordToDatabase("reused1", "secret");
+            other.addPasswordToDatabase("reused2", "secret");
+            assertTrue(probe.loginExists("reused1"), "Логин на повторно занятом rowid должен быть найден");
+        }
+        try (DatabaseManager manager = createManager()) {
+            manager.enableLoginIndex(1000, 0.01, indexFile);
+            assertTrue(manager.loginExists("reused2"), "Сохранённый индекс должен перестраиваться после удаления строк");
+            assertFalse(manager.loginExists("later"), "Удалённый логин не должен быть найден");
+
+            manager.enableLoginIndex(50000, 0.001, indexFile);
+            assertTrue(manager.loginExists("reused2"), "Индекс с другими параметрами должен быть построен заново");
+        }
+        assertTrue(LoginBloomFilter.load(indexFile).hasParameters(50000, 0.001), "Сохранённый индекс должен иметь новые параметры");
+
+        logger.info("testLoginIndex: Индекс логинов работает корректно.");
+    }
+
+    /**
+     * Проверяет хеширование паролей, проверку пароля и пересчёт хеша открытого текста и хеша с меньшей стоимостью.
+     */
+    @Test
+    public void testPasswordHashing() {
+        try (DatabaseManager manager = createManager(); PasswordHasher hasher = new PasswordHasher(1000, 2)) {
+            manager.addPasswordToDatabase("legacy", "plain");
+            manager.setPasswordHasher(hasher);
+
+            manager.addPasswordToDatabase("user", "secret");
+            String stored = manager.getPasswordByLogin("user");
+            assertTrue(stored.startsWith("pbkdf2-sha256$1000$"), "Пароль должен храниться в виде хеша");
+            assertTrue(manager.verifyPassword("user", "secret"), "Верный пароль должен пройти проверку");
+            assertFalse(manager.verifyPassword("user", "wrong"), "Неверный пароль не должен пройти проверку");
+            assertFalse(manager.verifyPassword("nobody", "secret"), "Несуществующий логин не должен пройти проверку");
+
+            assertTrue(manager.verifyPassword("legacy", "plain"), "Пароль открытым текстом должен пройти проверку");
+            assertTrue(PasswordHasher.isHash(manager.getPasswordByLogin("legacy")), "Открытый текст должен быть заменён хешем");
+
+            BulkInsertResult result = manager.addPasswordsToDatabase(
+                    IntStream.range(0, 100).mapToObj(i -> new Credential("bulk" + i, "p" + i)));
+            assertEquals(100, result.getInserted(), "Все строки должны быть добавлены");
+            assertTrue(manager.verifyPassword("bulk42", "p42"), "Пароль из пакета должен пройти проверку");
+
+            // Открытый пароль, похожий на хеш, хешируется; уже хешированное значение записывается явно без изменений
+            String lookalike = "pbkdf2-sha256$1$AAAAAAAAAAAAAAAAAAAAAA$AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA";
+            String preHashed = hasher.hash("imported");
+            manager.addPasswordsToDatabase(List.of(new Credential("lookalike", lookalike)), DatabaseManager.DuplicatePolicy.FAIL);
+            manager.addPasswordsToDatabase(List.of(new Credential("imported", preHashed)).iterator(),
+                    DatabaseManager.DuplicatePolicy.FAIL, 10, null, true);
+            assertNotEquals(lookalike, manager.getPasswordByLogin("lookalike"), "Пароль, похожий на хеш, должен быть хеширован");
+            assertTrue(manager.verifyPassword("lookalike", lookalike), "Пароль, похожий на хеш, должен пройти проверку");
+            assertEquals(preHashed, manager.getPasswordByLogin("imported"), "Хеш должен быть записан без изменений");
+            assertTrue(manager.verifyPassword("imported", "imported"), "Пароль по записанному хешу должен пройти проверку");
+
+            manager.setPasswordHasher(new PasswordHasher(2000, 1));
+            assertTrue(manager.verifyPassword("user", "secret"), "Хеш с меньшей стоимостью должен пройти проверку");
+            assertTrue(manager.getPasswordByLogin("user").startsWith("pbkdf2-sha256$2000$"), "Хеш должен быть пересчитан с новой стоимостью");
+
+            String costly = stored.replace("$1000$", "$" + (PasswordHasher.MAX_ITERATIONS + 1) + "$");
+            assertFalse(PasswordHasher.verify("secret", costly), "Хеш с количеством итераций больше максимального должен отклоняться");
+            assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(PasswordHasher.MAX_ITERATIONS + 1, 1),
+                    "Количество итераций больше максимального должно отклоняться");
+
+            AtomicInteger read = new AtomicInteger();
+            Iterator<Credential> endless = Stream.generate(() -> new Credential("l" + read.incrementAndGet(), "p")).iterator();
+            PasswordHasher.HashIterator hashed = hasher.hashAll(endless, 8);
+            assertTrue(hashed.next().getPassword().startsWith("pbkdf2-sha256$"), "Пароль должен быть хеширован");
+            hashed.close();
+            assertFalse(hashed.hasNext(), "Закрытый итератор не должен читать новые учётные данные");
+            assertTrue(read.get() <= 9, "Учётные данные должны читаться не дальше опережения: " + read.get());
+        }
+
+        logger.info("testPasswordHashing: Хеширование паролей работает корректно.");
+    }
+
+    /**
+     * Проверяет выгрузку и загрузку учётных данных в двоичном формате и CSV, включая значения
+     * с запятыми, кавычками, переводами строк и кириллицей, чтение окнами меньше записи и обрезанный файл.
+     */
+    @Test
+    public void testExportImport() throws Exception {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("plain", "secret");
+        expected.put("comma,login", "pa,ss");
+        expected.put("quote\"login", "\"quoted\"");
+        expected.put("кириллица", "пароль\r\nс переводом строки");
+        expected.put("empty", "");
+        expected.put("long", "x".repeat(300));
+        for (int i = 0; i < 1000; i++) {
+            expected.put("user" + i, "p" + i);
+        }
+
+        try (DatabaseManager manager = createManager()) {
+            expected.forEach(manager::addPasswordToDatabase);
+            for (CredentialFormat format : CredentialFormat.values()) {
+                Path file = tempDir.resolve("export." + format.name().toLowerCase());
+                assertEquals(expected.size(), manager.exportCredentials(file, format), "Должны быть выгружены все строки");
+
+                try (DatabaseManager target = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve(format + ".db"),
+                        DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL)) {
+                    BulkInsertResult result = target.importCredentials(file, format, DatabaseManager.DuplicatePolicy.FAIL);
+                    assertEquals(expected.size(), result.getInserted(), "Должны быть загружены все строки");
+                    Map<String, String> actual = new HashMap<>();
+                    target.forEachCredential(credential -> actual.put(credential.getLogin(), credential.getPassword()));
+                    assertEquals(expected, actual, "Загруженные данные должны совпадать с выгруженными (" + format + ")");
+                }
+            }
+        }
+
+        // Окно отображения меньше записи: записи пересекают границы окон
+        Path binary = tempDir.resolve("export.binary");
+        Map<String, String> actual = new HashMap<>();
+        try (CredentialReader reader = new CredentialReader(FileChannel.open(binary), CredentialFormat.BINARY, 7)) {
+            reader.forEachRemaining(credential -> actual.put(credential.getLogin(), credential.getPassword()));
+        }
+        assertEquals(expected, actual, "Чтение малыми окнами должно давать те же данные");
+
+        Path truncated = tempDir.resolve("truncated.binary");
+        Files.write(truncated, Arrays.copyOf(Files.readAllBytes(binary), (int) Files.size(binary) - 1));
+        try (CredentialReader reader = CredentialReader.open(truncated, CredentialFormat.BINARY)) {
+            assertThrows(UncheckedIOException.class, () -> reader.forEachRemaining(credential -> { }),
+                    "Обрезанный файл должен приводить к ошибке");
+        }
+
+        logger.info("testExportImport: Выгрузка и загрузка учётных данных работают корректно.");
+    }
+
+    /**
+     * Проверяет маршрутизацию по логину, параллельную пакетную запись в шарды и перенос
+     * учётных данных из одной базы данных в шарды.
+     */
+    @Test
+    public void testShardedDatabase() throws Exception {
+        Path base = tempDir.resolve("users.db");
+        assertEquals(tempDir.resolve("users-1-of-4.db"), ShardedDatabaseManager.shardFile(base, 1, 4),
+                "Имя файла шарда должно содержать номер и количество шардов");
+
+        try (ShardedDatabaseManager sharded = new ShardedDatabaseManager(base, 4,
+                DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL)) {
+            List<Credential> credentials = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                credentials.add(new Credential("user" + i, "p" + i));
+            }
+            BulkInsertResult result = sharded.addPasswordsToDatabase(credentials.iterator(),
+                    DatabaseManager.DuplicatePolicy.SKIP, 300);
+            assertEquals(5000, result.getInserted(), "Все строки должны быть добавлены");
+            assertEquals(5000, sharded.addPasswordsToDatabase(credentials, DatabaseManager.DuplicatePolicy.SKIP).getSkipped(),
+                    "Повторная запись должна пропускать существующие логины");
+
+            for (int i = 0; i < 4; i++) {
+                int shard = i;
+                long count = sharded.shard(i).forEachCredential(credential ->
+                        assertEquals(shard, sharded.shardFor(credential.getLogin()), "Логин должен лежать в своём шарде"));
+                assertTrue(count > 1000 && count < 1500, "Логины должны распределяться по шардам равномерно: " + count);
+            }
+
+            sharded.addPasswordToDatabase("single", "secret");
+            assertEquals("secret", sharded.getPasswordByLogin("single"), "Пароль должен находиться по логину");
+            assertEquals("p4242", sharded.getPasswordByLogin("user4242"), "Пароль из пакета должен находиться по логину");
+            assertNull(sharded.getPasswordByLogin("missing"), "Отсутствующий логин не должен быть найден");
+
+            // Первая же строка повторяет существующий логин: шард прерывает запись, остальные его строки не записываются
+            List<Credential> conflicting = new ArrayList<>();
+            conflicting.add(new Credential("user0", "again"));
+            for (int i = 0; i < 3000; i++) {
+                conflicting.add(new Credential("fresh" + i, "p" + i));
+            }
+            result = sharded.addPasswordsToDatabase(conflicting.iterator(), DatabaseManager.DuplicatePolicy.FAIL, 20);
+            assertTrue(result.isAborted(), "Запись в шард с конфликтом должна быть прервана");
+            assertEquals(conflicting.size(), result.getTotal(), "Каждая строка должна быть учтена в итогах");
+            long freshStored = sharded.forEachCredential(credential -> { }) - 5001;
+            assertEquals(freshStored, result.getInserted(), "Незаписанные строки должны учитываться как ошибочные");
+            assertTrue(result.getFailed() > 20, "Строки, отброшенные после ошибки, должны учитываться: " + result.getFailed());
+        }
+
+        try (ShardedDatabaseManager sharded = new ShardedDatabaseManager(tempDir.resolve("concurrent.db"), 2,
+                DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL)) {
+            // Одновременные пакетные записи не должны блокировать друг друга на общих потоках шардов
+            ExecutorService callers = Executors.newFixedThreadPool(2);
+            try {
+                List<Future<BulkInsertResult>> writes = new ArrayList<>();
+                for (int t = 0; t < 2; t++) {
+                    String prefix = "t" + t + "-";
+                    writes.add(callers.submit(() -> sharded.addPasswordsToDatabase(IntStream.range(0, 2000)
+                            .mapToObj(i -> new Credential(prefix + i, "p")).iterator(), DatabaseManager.DuplicatePolicy.SKIP, 10)));
+                }
+                for (Future<BulkInsertResult> write : writes) {
+                    assertEquals(2000, write.get(30, TimeUnit.SECONDS).getInserted(), "Каждая запись должна завершиться");
+                }
+            } finally {
+                callers.shutdownNow();
+            }
+        }
+
+        try (DatabaseManager source = createManager(); ShardedDatabaseManager target = new ShardedDatabaseManager(
+                tempDir.resolve("resharded.db"), 3, DatabaseManager.JournalMode.WAL, DatabaseManager.SynchronousMode.NORMAL)) {
+            source.addPasswordsToDatabase(IntStream.range(0, 1000).mapToObj(i -> new Credential("login" + i, "pass" + i)));
+            BulkInsertResult result = target.copyFrom(source, DatabaseManager.DuplicatePolicy.SKIP);
+            assertEquals(1000, result.getInserted(), "Все строки должны быть перенесены");
+            assertEquals(1000, target.forEachCredential(credential -> { }), "Шарды должны содержать все строки");
+            assertTrue(target.verifyPassword("login999", "pass999"), "Перенесённый пароль должен пройти проверку");
+        }
+
+        logger.info("testShardedDatabase: Шардированное хранилище работает корректно.");
+    }
+
+    /**
+     * Проверяет пакетную проверку надёжности паролей из базы данных: распределение оценок,
+     * пропуск хешей и список логинов со слабыми паролями.
+     *
+     * @throws Exception если возникает ошибка работы с базой данных.
+     */
+    @Test
+    public void testStrengthAudit() throws Exception {
+        try (DatabaseManager databaseManager = createManager()) {
+            PasswordGenerator generator = new PasswordGenerator();
+            List<Credential> credentials = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                credentials.add(new Credential("strong" + i, generator.generatePassword(16, true, true, true).getPassword()));
+            }
+            for (int i = 0; i < 100; i++) {
+                credentials.add(new Credential("weak" + i, "qwerty" + i));
+            }
+            credentials.add(new Credential("hashed", new PasswordHasher(1000, 1).hash("secret")));
+            databaseManager.addPasswordsToDatabase(credentials, DatabaseManager.DuplicatePolicy.FAIL);
+
+            try (StrengthAudit audit = new StrengthAudit(StrengthEstimator.get(), 2, 10)) {
+                databaseManager.forEachCredential(audit);
+                audit.finish();
+                assertEquals(10100, audit.getChecked(), "Все открытые пароли должны быть проверены");
+                assertEquals(1, audit.getHashed(), "Хеш пароля не должен проверяться");
+                // Случайная строка изредка содержит словарное слово или последовательность, поэтому допускаются единицы исключений
+                assertTrue(audit.getScoreCount(4) >= 9990, "Случайные пароли должны быть очень надёжными: " + audit.getScoreCount(4));
+                assertEquals(100, audit.getScoreCount(0) + audit.getScoreCount(1), "Словарные пароли должны быть слабыми");
+                assertEquals(10, audit.getWeakLogins().size(), "Список слабых паролей должен быть ограничен");
+                assertTrue(audit.getWeakLogins().stream().allMatch(login -> login.startsWith("weak")),
+                        "В списке должны быть только логины со слабыми паролями");
+                assertTrue(audit.getPatternCount(PasswordStrength.Pattern.DICTIONARY) >= 100, "Должны найтись словарные слова");
+                assertTrue(audit.getRowsPerSecond() > 0, "Скорость проверки должна быть измерена");
+            }
+        }
+
+        logger.info("testStrengthAudit: Проверка надёжности паролей работает корректно.");
+    }
+}
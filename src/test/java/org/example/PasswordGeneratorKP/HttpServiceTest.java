@@ -0,0 +1,280 @@
+package org.example.PasswordGeneratorKP;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для класса {@link HttpService}.
+ * Сервис запускается на свободном порту, запросы отправляются через сокет, чтобы управлять
+ * методом, заголовками и скоростью отправки запроса.
+ */
+public class HttpServiceTest {
+
+    /**
+     * Логгер для записи результатов тестов.
+     */
+    private static final Logger logger = LogManager.getLogger(HttpServiceTest.class);
+
+    // Строка JSON без управляющих символов, с экранированными кавычками и обратной косой чертой
+    private static final String JSON_STRING = "\"((?:[^\"\\\\]|\\\\.)*)\"";
+
+    private HttpService service;
+
+    /**
+     * Запускает сервис с одним потоком обработки и очередью из одного запроса.
+     *
+     * @throws IOException если не удалось открыть порт.
+     */
+    @BeforeEach
+    public void startService() throws IOException {
+        service = new HttpService(0, 1, 1);
+        service.start();
+    }
+
+    /**
+     * Останавливает сервис.
+     */
+    @AfterEach
+    public void stopService() {
+        service.stop(0);
+    }
+
+    /**
+     * Ответ сервиса.
+     *
+     * @param status  код ответа.
+     * @param headers заголовки ответа.
+     * @param body    тело ответа.
+     */
+    private record Response(int status, String headers, String body) {
+    }
+
+    /**
+     * Отправляет запрос целиком и читает ответ до закрытия подключения.
+     *
+     * @param request строка запроса и заголовки без завершающей пустой строки.
+     * @param body    тело запроса.
+     * @return ответ сервиса.
+     * @throws IOException если произошла ошибка обмена.
+     */
+    private Response send(String request, String body) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", service.getPort()));
+            socket.setSoTimeout(10000);
+            OutputStream out = socket.getOutputStream();
+            out.write((request + "\r\nHost: localhost\r\nConnection: close\r\n\r\n" + body).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            String response = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            int headersEnd = response.indexOf("\r\n\r\n");
+            assertTrue(headersEnd > 0, "Ответ должен содержать заголовки: " + response);
+            int status = Integer.parseInt(response.substring(9, 12));
+            return new Response(status, response.substring(0, headersEnd), response.substring(headersEnd + 4));
+        }
+    }
+
+    /**
+     * Отправляет запрос GET без тела.
+     *
+     * @param target путь со строкой запроса.
+     * @return ответ сервиса.
+     * @throws IOException если произошла ошибка обмена.
+     */
+    private Response get(String target) throws IOException {
+        return send("GET " + target + " HTTP/1.1", "");
+    }
+
+    /**
+     * Разбирает строку JSON, снимая экранирование.
+     *
+     * @param escaped строка без кавычек.
+     * @return исходная строка.
+     */
+    private static String unescape(String escaped) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < escaped.length(); i++) {
+            char c = escaped.charAt(i);
+            result.append(c == '\\' ? escaped.charAt(++i) : c);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Проверяет формат ответов JSON на запросы одного пароля и пакета паролей.
+     *
+     * @throws IOException если произошла ошибка обмена.
+     */
+    @Test
+    public void testGenerateJson() throws IOException {
+        Response single = get("/generate?length=16&uppercase&digits=true&special");
+        assertEquals(200, single.status(), single.body());
+        assertTrue(single.headers().contains("application/json"), "Ответ должен иметь тип JSON");
+        Matcher matcher = Pattern.compile("\\{\"password\":" + JSON_STRING + ",\"generationTime\":\\d+}").matcher(single.body());
+        assertTrue(matcher.matches(), "Неверный формат ответа: " + single.body());
+        assertEquals(16, unescape(matcher.group(1)).length(), "Пароль должен иметь заданную длину");
+
+        Response batch = get("/generate/batch?count=5&length=10");
+        assertEquals(200, batch.status(), batch.body());
+        matcher = Pattern.compile("\\{\"passwords\":\\[(.*)],\"generationTime\":\\d+}").matcher(batch.body());
+        assertTrue(matcher.matches(), "Неверный формат ответа: " + batch.body());
+        List<String> passwords = new ArrayList<>();
+        Matcher item = Pattern.compile(JSON_STRING + ",?").matcher(matcher.group(1));
+        while (item.find()) {
+            passwords.add(unescape(item.group(1)));
+        }
+        assertEquals(5, passwords.size(), "Пакет должен содержать заданное количество паролей");
+        passwords.forEach(password -> assertEquals(10, password.length(), "Пароль должен иметь заданную длину"));
+
+        assertEquals(2, service.getServedCount(), "Должны учитываться успешные запросы");
+        assertEquals(0, service.getErrorCount(), "Ошибок в запросах не было");
+
+        logger.info("testGenerateJson: Ответы JSON имеют корректный формат.");
+    }
+
+    /**
+     * Проверяет ответы на некорректные запросы: метод, тело, длина строки запроса, путь и параметры.
+     *
+     * @throws IOException если произошла ошибка обмена.
+     */
+    @Test
+    public void testClientErrors() throws IOException {
+        assertEquals(405, send("POST /generate HTTP/1.1\r\nContent-Length: 0", "").status(), "Поддерживается только GET");
+        assertEquals(405, send("DELETE /metrics HTTP/1.1", "").status(), "Метрики доступны только через GET");
+        assertEquals(413, send("GET /generate HTTP/1.1\r\nContent-Length: 4", "body").status(), "Тело запроса запрещено");
+        assertEquals(414, get("/generate?length=12&pad=" + "x".repeat(1100)).status(), "Строка запроса ограничена");
+        assertEquals(404, get("/generate/unknown").status(), "Неизвестный путь");
+
+        Response notNumber = get("/generate?length=twelve");
+        assertEquals(400, notNumber.status(), "Длина должна быть числом");
+        assertTrue(notNumber.body().startsWith("{\"error\":\""), "Ошибка должна возвращаться в JSON: " + notNumber.body());
+        assertEquals(400, get("/generate?length=2&uppercase&digits&special").status(), "Длина меньше количества классов");
+        assertEquals(400, get("/generate/batch?count=0").status(), "Количество паролей должно быть положительным");
+        assertEquals(400, get("/generate/batch?count=10001").status(), "Количество паролей ограничено");
+        assertEquals(400, get("/generate/batch?count=10000&length=1001").status(), "Общая длина пакета ограничена");
+
+        assertEquals(0, service.getServedCount(), "Ошибочные запросы не должны учитываться как обработанные");
+        assertEquals(10, service.getErrorCount(), "Все ошибочные запросы должны быть учтены");
+
+        logger.info("testClientErrors: Некорректные запросы отклоняются с верными кодами.");
+    }
+
+    /**
+     * Проверяет ответ 503 с заголовком {@code Retry-After} при переполненной очереди, в том числе для метрик,
+     * и то, что медленный отклонённый клиент не задерживает ответы другим клиентам.
+     *
+     * @throws Exception если произошла ошибка обмена или ожидание прервано.
+     */
+    @Test
+    public void testOverload() throws Exception {
+        List<Socket> slowClients = new ArrayList<>();
+        try {
+            // Первый клиент занимает поток обработки, второй — место в очереди, третий — поток отклонений
+            for (int i = 0; i < 3; i++) {
+                slowClients.add(slowClient());
+                Thread.sleep(300);
+            }
+
+            Response overloaded = get("/generate");
+            assertEquals(503, overloaded.status(), overloaded.body());
+            assertTrue(overloaded.headers().toLowerCase().contains("retry-after: 1"), "Ответ 503 должен содержать Retry-After");
+            assertEquals(503, get("/metrics").status(), "Перегрузка должна проверяться для всех путей");
+            assertEquals(2, service.getRejectedCount(), "Отклонённые запросы должны учитываться");
+        } finally {
+            for (Socket socket : slowClients) {
+                socket.close();
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 10000;
+        Response recovered;
+        do {
+            Thread.sleep(100);
+            recovered = get("/generate");
+        } while (recovered.status() != 200 && System.currentTimeMillis() < deadline);
+        assertEquals(200, recovered.status(), "После разгрузки сервис должен снова отвечать");
+
+        logger.info("testOverload: Перегрузка обрабатывается ответом 503.");
+    }
+
+    /**
+     * Проверяет, что при потоке медленных подключений, заполняющем и очередь обработки, и очередь отклонений,
+     * лишние подключения сразу закрываются, а очередь отклонённых запросов не растёт.
+     *
+     * @throws Exception если произошла ошибка обмена или ожидание прервано.
+     */
+    @Test
+    public void testFlood() throws Exception {
+        List<Socket> clients = new ArrayList<>();
+        try {
+            // Поток обработки, место в очереди, два потока отклонений и очередь отклонений из 16 запросов
+            for (int i = 0; i < 20; i++) {
+                clients.add(slowClient());
+                Thread.sleep(50);
+            }
+            List<Socket> flood = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                Socket socket = slowClient();
+                clients.add(socket);
+                flood.add(socket);
+            }
+            for (Socket socket : flood) {
+                socket.setSoTimeout(5000);
+                int read;
+                try {
+                    read = socket.getInputStream().read();
+                } catch (SocketException e) {
+                    // Сброс подключения тоже означает, что оно закрыто сервером
+                    read = -1;
+                }
+                assertEquals(-1, read, "Лишнее подключение должно закрываться без ответа");
+            }
+            assertTrue(service.getPendingRejections() <= 16, "Очередь отклонённых запросов должна быть ограничена");
+            assertEquals(30, service.getDroppedCount(), "Все лишние подключения должны быть закрыты");
+            assertTrue(service.getRejectedCount() >= 30, "Закрытые подключения должны учитываться как отклонённые");
+        } finally {
+            for (Socket socket : clients) {
+                socket.close();
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 10000;
+        Response recovered;
+        do {
+            Thread.sleep(100);
+            recovered = get("/generate");
+        } while (recovered.status() != 200 && System.currentTimeMillis() < deadline);
+        assertEquals(200, recovered.status(), "После разгрузки сервис должен снова отвечать");
+
+        logger.info("testFlood: Поток подключений не накапливается в памяти.");
+    }
+
+    /**
+     * Открывает подключение и отправляет только строку запроса, не завершая заголовки.
+     *
+     * @return сокет медленного клиента.
+     * @throws IOException если не удалось подключиться.
+     */
+    private Socket slowClient() throws IOException {
+        Socket socket = new Socket("localhost", service.getPort());
+        socket.getOutputStream().write("GET /generate HTTP/1.1\r\n".getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        return socket;
+    }
+}
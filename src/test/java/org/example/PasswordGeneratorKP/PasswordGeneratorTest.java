@@ -3,6 +3,19 @@ package org.example.PasswordGeneratorKP;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -87,4 +100,370 @@ public class PasswordGeneratorTest {
 
         logger.info("testInvalidPasswordLength: Исключение, выданное с сообщением: " + exception.getMessage());
     }
+
+    /**
+     * Проверяет, что генерация в массив символов соблюдает длину и обязательные наборы символов.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     */
+    @Test
+    public void testGeneratePasswordChars() throws PasswordGeneratorException {
+        PasswordGenerator generator = new PasswordGenerator();
+        char[] password = generator.generatePasswordChars(3, true, true, true);
+        String value = new String(password);
+        assertEquals(3, password.length, "Пароль должен быть 3 символа");
+        assertTrue(value.matches(".*\\d.*"), "Пароль должен содержать хотя бы 1 цифру");
+        assertTrue(value.matches(".*[!@#$%^&*()\\-_=+<>?].*"), "Пароль должен содержать хотя бы 1 специальный символ");
+
+        logger.info("testGeneratePasswordChars: Пароль содержит все обязательные наборы символов.");
+    }
+
+    /**
+     * Проверяет, что заполнение буфера изменяет только первые {@code length} символов.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     */
+    @Test
+    public void testFillPasswordReusesBuffer() throws PasswordGeneratorException {
+        PasswordGenerator generator = new PasswordGenerator();
+        char[] buffer = new char[16];
+        buffer[15] = '~';
+        generator.fillPassword(buffer, 8, false, true, false);
+        assertTrue(new String(buffer, 0, 8).matches(".*\\d.*"), "Пароль должен содержать хотя бы 1 цифру");
+        assertEquals('~', buffer[15], "Символы за пределами длины пароля не должны изменяться");
+
+        assertThrows(PasswordGeneratorException.class, () -> generator.fillPassword(buffer, 17, false, false, false));
+        assertThrows(PasswordGeneratorException.class, () -> generator.fillPassword(buffer, 2, true, true, true));
+
+        logger.info("testFillPasswordReusesBuffer: Буфер заполнен корректно.");
+    }
+
+    /**
+     * Проверяет, что параллельная пакетная генерация возвращает все пароли с корректной длиной и временем.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     */
+    @Test
+    public void testGeneratePasswordsParallel() throws PasswordGeneratorException {
+        PasswordGenerator generator = new PasswordGenerator();
+        BatchResult batch = generator.generatePasswords(1000, 10, true, true, true, true);
+        assertEquals(1000, batch.getPasswords().size(), "Пакет должен содержать 1000 паролей");
+        for (PasswordResult result : batch.getPasswords()) {
+            assertEquals(10, result.getPassword().length(), "Пароль должен быть 10 символов");
+            assertTrue(result.getPassword().matches(".*\\d.*"), "Пароль должен содержать хотя бы 1 цифру");
+        }
+        assertTrue(batch.getGenerationTime() > 0, "Общее время генерации должно быть положительным");
+
+        logger.info("testGeneratePasswordsParallel: Пакет сгенерирован корректно.");
+    }
+
+    /**
+     * Проверяет, что потоковая генерация записывает пароль нужной длины со всеми обязательными наборами символов.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     * @throws IOException                если возникает ошибка записи.
+     */
+    @Test
+    public void testWritePasswordStreaming() throws PasswordGeneratorException, IOException {
+        PasswordGenerator generator = new PasswordGenerator();
+
+        StringWriter writer = new StringWriter();
+        generator.writePassword(writer, 3, true, true, true);
+        String shortPassword = writer.toString();
+        assertEquals(3, shortPassword.length(), "Пароль должен быть 3 символа");
+        assertTrue(shortPassword.matches(".*\\d.*"), "Пароль должен содержать хотя бы 1 цифру");
+        assertTrue(shortPassword.matches(".*[!@#$%^&*()\\-_=+<>?].*"), "Пароль должен содержать хотя бы 1 специальный символ");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        generator.writePassword(Channels.newChannel(bytes), 100000, false, true, false);
+        String longPassword = bytes.toString(StandardCharsets.UTF_8);
+        assertEquals(100000, longPassword.length(), "Пароль должен быть 100000 символов");
+
+        logger.info("testWritePasswordStreaming: Пароль записан потоково.");
+    }
+
+    /**
+     * Проверяет генерацию с пулом генераторов выбранного алгоритма и частым пересевом.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     */
+    @Test
+    public void testSecureRandomPool() throws PasswordGeneratorException {
+        PasswordGenerator generator = new PasswordGenerator(new SecureRandomPool("DRBG", 1));
+        BatchResult batch = generator.generatePasswords(100, 12, true, true, true, true);
+        assertEquals(100, batch.getPasswords().size(), "Пакет должен содержать 100 паролей");
+
+        assertThrows(IllegalArgumentException.class, () -> new SecureRandomPool("NoSuchAlgorithm", 0));
+        assertThrows(IllegalArgumentException.class, () -> new SecureRandomPool("NoSuchAlgorithm", 0),
+                "Неподдерживаемый алгоритм не должен запоминаться как проверенный");
+        assertEquals("DRBG", new SecureRandomPool("DRBG", 0).getAlgorithm(), "Проверенный алгоритм должен приниматься повторно");
+        assertSame(SecureRandomPool.shared(), SecureRandomPool.shared(), "Общий пул должен создаваться один раз");
+
+        logger.info("testSecureRandomPool: Пул генераторов работает корректно.");
+    }
+
+    /**
+     * Проверяет точность перцентилей гистограммы задержек и запись метрик генерации.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     */
+    @Test
+    public void testLatencyHistogram() throws PasswordGeneratorException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(100000, histogram.getCount(), "Должно быть записано 100000 значений");
+        assertEquals(100000000, histogram.getMax(), "Максимум должен быть записан точно");
+        long p50 = histogram.getPercentile(0.5);
+        long p99 = histogram.getPercentile(0.99);
+        assertTrue(Math.abs(p50 - 50000000) <= 50000000 / 16, "Погрешность медианы не должна превышать 1/16");
+        assertTrue(Math.abs(p99 - 99000000) <= 99000000 / 16, "Погрешность 99-го перцентиля не должна превышать 1/16");
+
+        long before = Metrics.get().getGenerationHistogram(12).getCount();
+        new PasswordGenerator().generatePassword(12, true, true, true);
+        assertEquals(before + 1, Metrics.get().getGenerationHistogram(12).getCount(), "Генерация должна быть записана в метрики");
+        assertTrue(Metrics.get().dumpPrometheus().contains("password_generation_seconds_count{length_le=\"16\"}"),
+                "Метрики должны выводиться в формате Prometheus");
+
+        logger.info("testLatencyHistogram: Метрики записываются корректно.");
+    }
+
+    /**
+     * Проверяет политику генерации: минимальные количества наборов, исключение символов,
+     * только ASCII, произвольные наборы, проверку параметров и переиспользование скомпилированной таблицы.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     */
+    @Test
+    public void testPasswordPolicy() throws PasswordGeneratorException {
+        PasswordGenerator generator = new PasswordGenerator();
+
+        PasswordPolicy policy = PasswordPolicy.builder().asciiOnly().uppercase(2).digits(3).specialChars(1).excludeAmbiguous().build();
+        assertEquals(6, policy.getMinLength(), "Минимальная длина должна быть равна сумме минимальных количеств");
+        for (int i = 0; i < 100; i++) {
+            String password = generator.generatePassword(8, policy).getPassword();
+            assertEquals(8, password.length(), "Пароль должен быть 8 символов");
+            assertTrue(password.matches("[\\x21-\\x7e]+"), "Пароль должен содержать только символы ASCII");
+            assertTrue(password.replaceAll("[^A-Z]", "").length() >= 2, "Пароль должен содержать не менее 2 заглавных букв");
+            assertTrue(password.replaceAll("[^0-9]", "").length() >= 3, "Пароль должен содержать не менее 3 цифр");
+            assertFalse(password.matches(".*[Il1|O0o].*"), "Пароль не должен содержать неоднозначных символов");
+        }
+
+        PasswordPolicy pin = PasswordPolicy.builder().withoutLowercase().characterClass("PIN", "0123456789", 0).build();
+        assertEquals(10, pin.getCharsetSize(), "Набор PIN должен содержать 10 символов");
+        assertTrue(generator.generatePassword(6, pin).getPassword().matches("\\d{6}"), "PIN должен состоять из цифр");
+        assertSame(pin.table(), PasswordPolicy.builder().withoutLowercase().characterClass("код", "0123456789", 0).build().table(),
+                "Политики с одинаковыми наборами должны использовать одну таблицу");
+
+        assertEquals(33 * 2 + 26 * 2, PasswordPolicy.of(true, false, false).getCharsetSize(),
+                "Буквы не должны повторяться, кириллица должна быть полной");
+        assertThrows(PasswordGeneratorException.class, () -> generator.generatePassword(5, policy));
+        assertThrows(PasswordGeneratorException.class, () -> PasswordPolicy.builder().digits(-1).build());
+        assertThrows(PasswordGeneratorException.class, () -> PasswordPolicy.builder().digits(1).characterClass("цифры", "012", 1).build());
+        assertThrows(PasswordGeneratorException.class, () -> PasswordPolicy.builder().withoutLowercase().characterClass("пусто", "01", 1).exclude("01").build());
+
+        logger.info("testPasswordPolicy: Политика генерации работает корректно.");
+    }
+
+    /**
+     * Проверяет критерием хи-квадрат, что выборка из буфера случайных байтов с отбрасыванием
+     * даёт равномерное распределение символов и позиций при перемешивании.
+     * Генератор с фиксированным зерном делает результат воспроизводимым.
+     */
+    @Test
+    public void testSamplerUniformity() {
+        // Размеры алфавитов, для которых используется один, два и три байта на значение
+        for (int size : new int[]{10, 59, 135, 200, 40000}) {
+            char[] alphabet = new char[size];
+            for (int i = 0; i < size; i++) {
+                alphabet[i] = (char) i;
+            }
+            int samples = size * 200;
+            char[] result = new char[samples];
+            new RandomSampler(new Random(size)).fill(result, 0, samples, alphabet);
+            long[] counts = new long[size];
+            for (char c : result) {
+                counts[c]++;
+            }
+            double statistic = chiSquare(counts, samples);
+            assertTrue(statistic < chiSquareCritical(size - 1),
+                    "Распределение символов алфавита из " + size + " должно быть равномерным: " + statistic);
+        }
+
+        // Каждый символ должен с равной вероятностью оказаться в каждой позиции после перемешивания
+        RandomSampler sampler = new RandomSampler(new Random(42));
+        int length = 7;
+        long[] counts = new long[length];
+        for (int i = 0; i < 70000; i++) {
+            char[] chars = "abcdefg".toCharArray();
+            sampler.shuffle(chars, length);
+            counts[new String(chars).indexOf('a')]++;
+        }
+        double statistic = chiSquare(counts, 70000);
+        assertTrue(statistic < chiSquareCritical(length - 1), "Позиции после перемешивания должны быть равновероятны: " + statistic);
+
+        logger.info("testSamplerUniformity: Распределение равномерно.");
+    }
+
+    /**
+     * Вычисляет статистику хи-квадрат для равномерного распределения.
+     *
+     * @param counts  наблюдаемые частоты.
+     * @param samples общее количество наблюдений.
+     * @return значение статистики.
+     */
+    private static double chiSquare(long[] counts, long samples) {
+        double expected = (double) samples / counts.length;
+        double statistic = 0;
+        for (long count : counts) {
+            statistic += (count - expected) * (count - expected) / expected;
+        }
+        return statistic;
+    }
+
+    /**
+     * Вычисляет критическое значение хи-квадрат на уровне значимости 0,001 (приближение Уилсона — Хилферти).
+     *
+     * @param degrees число степеней свободы.
+     * @return критическое значение.
+     */
+    private static double chiSquareCritical(int degrees) {
+        double h = 2.0 / (9.0 * degrees);
+        return degrees * Math.pow(1 - h + 3.09 * Math.sqrt(h), 3);
+    }
+
+    /**
+     * Проверяет генерацию без повторов: точный подсчёт пространства паролей, исчерпание всех PIN-кодов,
+     * учёт заранее выданных паролей и ошибку при недостаточном пространстве.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     */
+    @Test
+    public void testUniquePasswords() throws PasswordGeneratorException {
+        PasswordGenerator generator = new PasswordGenerator();
+        PasswordPolicy pin = PasswordPolicy.builder().withoutLowercase().digits(0).build();
+        assertEquals(1000, pin.keyspace(3), "Трёхзначных PIN-кодов должно быть 1000");
+        assertEquals(69 * 69 - 59 * 59, PasswordPolicy.of(false, true, false).keyspace(2),
+                "Пароли без цифр не должны учитываться");
+        assertEquals(Long.MAX_VALUE, PasswordPolicy.of(true, true, true).keyspace(100), "Большое пространство должно насыщаться");
+
+        UniquePasswordSet issued = new UniquePasswordSet(pin, 3, 1);
+        assertTrue(issued.add("123"), "Выданный пароль должен быть добавлен");
+        assertFalse(issued.add("123"), "Повтор не должен быть добавлен");
+        assertFalse(issued.add("12a"), "Пароль с символами вне набора должен быть пропущен");
+
+        Set<String> passwords = new HashSet<>();
+        generator.generateUniquePasswords(999, issued, passwords::add);
+        assertEquals(999, passwords.size(), "Все пароли должны быть различны");
+        assertFalse(passwords.contains("123"), "Ранее выданный пароль не должен повториться");
+        assertThrows(PasswordGeneratorException.class, () -> generator.generateUniquePasswords(1, issued),
+                "При исчерпании пространства должна быть ошибка");
+
+        UniquePasswordSet longPasswords = new UniquePasswordSet(PasswordPolicy.of(true, true, true), 12, 10);
+        BatchResult batch = generator.generateUniquePasswords(20000, longPasswords);
+        assertEquals(20000, batch.getPasswords().stream().map(PasswordResult::getPassword).distinct().count(),
+                "Все длинные пароли должны быть различны");
+        assertTrue(longPasswords.getMemoryBytes() <= 20000 * 16, "Память на пароль должна составлять несколько байтов");
+
+        logger.info("testUniquePasswords: Пароли без повторов сгенерированы.");
+    }
+
+    /**
+     * Проверяет пул готовых паролей: промах с прямой генерацией, пополнение до верхней границы,
+     * однократную выдачу каждого пароля при параллельных запросах и проверку параметров.
+     *
+     * @throws Exception если возникает ошибка при генерации пароля или ожидании потоков.
+     */
+    @Test
+    public void testPasswordPool() throws Exception {
+        PasswordPolicy policy = PasswordPolicy.of(true, true, true);
+        try (PasswordPool pool = new PasswordPool(new PasswordGenerator(), 8, 32, 2)) {
+            assertEquals(16, pool.take(16, policy).getPassword().length(), "Промах должен давать пароль нужной длины");
+            assertEquals(1, pool.getMisses(), "Первый запрос должен быть промахом");
+            for (int i = 0; i < 500 && pool.getDepth(16, policy) < 32; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(32, pool.getDepth(16, policy), "Пул должен пополниться до верхней границы");
+
+            Set<PasswordResult> taken = Collections.newSetFromMap(new IdentityHashMap<>());
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        try {
+                            PasswordResult result = pool.take(16, policy);
+                            synchronized (taken) {
+                                assertTrue(taken.add(result), "Пароль не должен выдаваться дважды");
+                            }
+                        } catch (PasswordGeneratorException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(200, taken.size(), "Все выданные пароли должны быть различными объектами");
+            assertTrue(pool.getHits() >= 32, "Готовые пароли должны выдаваться из пула");
+            assertTrue(pool.getRefilled() >= 32, "Пул должен пополняться в фоне");
+
+            assertThrows(PasswordGeneratorException.class, () -> pool.take(2, policy),
+                    "Некорректная длина должна приводить к ошибке");
+            assertEquals(0, pool.getDepth(2, policy), "Для некорректной длины не должна создаваться очередь");
+            assertEquals(PasswordPool.MAX_POOLED_LENGTH + 1, pool.take(PasswordPool.MAX_POOLED_LENGTH + 1, policy)
+                    .getPassword().length(), "Длинный пароль должен генерироваться напрямую");
+            assertEquals(1, pool.getPoolCount(), "Длинные пароли не должны храниться в пуле");
+        }
+
+        logger.info("testPasswordPool: Пул паролей работает корректно.");
+    }
+
+    /**
+     * Проверяет оценку надёжности: словарные слова (в том числе с заменами символов и в русской раскладке),
+     * повторы, последовательности и ряды клавиатуры, энтропию набора символов и префиксное дерево словаря.
+     *
+     * @throws PasswordGeneratorException если возникает ошибка при генерации пароля.
+     */
+    @Test
+    public void testPasswordStrength() throws PasswordGeneratorException {
+        StrengthEstimator estimator = StrengthEstimator.get();
+
+        PasswordStrength common = estimator.estimate("password");
+        assertEquals(0, common.getScore(), "Распространённый пароль должен быть очень слабым");
+        assertTrue(common.getPatterns().contains(PasswordStrength.Pattern.DICTIONARY), "Должно найтись словарное слово");
+        assertTrue(estimator.estimate("P@ssw0rd").getPatterns().contains(PasswordStrength.Pattern.DICTIONARY),
+                "Замены символов не должны скрывать словарное слово");
+        assertTrue(estimator.estimate("ghbdtn").getPatterns().contains(PasswordStrength.Pattern.DICTIONARY),
+                "Слово, набранное в другой раскладке, должно находиться в словаре");
+        assertTrue(estimator.estimate("aaaaaaaa").getPatterns().contains(PasswordStrength.Pattern.REPEAT), "Должен найтись повтор");
+        assertTrue(estimator.estimate("abcdef").getPatterns().contains(PasswordStrength.Pattern.SEQUENCE),
+                "Должна найтись последовательность");
+        assertTrue(estimator.estimate("zxcvbnm").getPatterns().contains(PasswordStrength.Pattern.KEYBOARD)
+                || estimator.estimate("zxcvbnm").getPatterns().contains(PasswordStrength.Pattern.DICTIONARY),
+                "Должен найтись ряд клавиатуры");
+        assertTrue(estimator.estimate("asdfgh").getScore() <= 1, "Ряд клавиатуры должен быть слабым паролем");
+
+        PasswordStrength abc = estimator.estimate("xqz");
+        assertEquals(26, abc.getCharsetSize(), "Набор символов должен состоять из строчных латинских букв");
+        assertEquals(3 * Math.log(26) / Math.log(2), abc.getEntropyBits(), 1e-9, "Неверная энтропия набора символов");
+        assertTrue(abc.getEffectiveBits() <= abc.getEntropyBits(), "Шаблоны не должны увеличивать энтропию");
+
+        PasswordGenerator generator = new PasswordGenerator();
+        PasswordResult generated = generator.generatePassword(16, true, true, true);
+        assertEquals(4, generated.getStrength().getScore(), "Случайный пароль из 16 символов должен быть очень надёжным");
+        assertSame(generated.getStrength(), generated.getStrength(), "Оценка должна вычисляться один раз");
+        assertEquals(0, estimator.estimate("").getScore(), "Пустой пароль должен быть очень слабым");
+
+        WordTrie trie = new WordTrie(List.of("pass", "password", "pass", "qwerty"));
+        assertEquals(1, trie.find("pass"), "Повторное слово должно сохранять наименьший ранг");
+        assertEquals(2, trie.find("password"), "Ранг слова должен совпадать с его номером");
+        assertEquals(0, trie.find("passw"), "Префикс слова не является словом");
+        assertEquals(0, trie.find("qwertyu"), "Отсутствующее слово не должно находиться");
+        assertEquals(8, trie.maxLength(), "Неверная длина самого длинного слова");
+
+        logger.info("testPasswordStrength: Оценка надёжности паролей работает корректно.");
+    }
 }